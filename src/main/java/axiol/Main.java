@@ -1,27 +1,40 @@
 package axiol;
 
+import axiol.build.BuildCache;
+import axiol.build.BuildScheduler;
+import axiol.build.CompilerDaemon;
+import axiol.build.IncrementalBuild;
 import axiol.instruction.Instruction;
 import axiol.instruction.InstructionGenerator;
 import axiol.instruction.InstructionSet;
+import axiol.linker.CompilationUnit;
 import axiol.linker.LinkedSources;
 import axiol.linker.Linker;
 import axiol.parser.LanguageParser;
 import axiol.parser.tree.RootNode;
+import axiol.parser.util.SourceFile;
 import axiol.target.AssemblyGenerator;
 import axiol.target.TargetFormat;
 import axiol.utils.Profiler;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 public class Main {
 
     public static final Profiler PROFILER = new Profiler();
 
     public static final File TESTING_FOLDER = new File("test/");
+    // assembly of every file compiled as its own unit
+    public static final File UNITS_FOLDER = new File("test/build/units/");
+    // estimated bytes of parsed modules the daemon keeps between requests
+    public static final long DAEMON_CACHE_BUDGET = 256L * 1024 * 1024;
+    // assembly of earlier builds, shared by every build running in this folder
+    private static BuildCache buildCache;
 
     public static final String[] testingCases = {
             //"enum_syntax",
@@ -35,46 +48,129 @@ public class Main {
     };
 
     public static void main(String[] args) {
-        LanguageParser languageParser = new LanguageParser();
+        List<String> options = Arrays.asList(args);
+        int maxErrors = options.indexOf("--max-errors");
+        LanguageParser languageParser = maxErrors >= 0 && maxErrors + 1 < args.length
+                ? new LanguageParser(Integer.parseInt(args[maxErrors + 1]))
+                : new LanguageParser();
+
+        int daemon = options.indexOf("--daemon");
+        if (daemon >= 0 && daemon + 1 < args.length) {
+            try {
+                new CompilerDaemon(Path.of(args[daemon + 1]), DAEMON_CACHE_BUDGET).serve();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return;
+        }
+
+        if (options.contains("--watch") || options.contains("--incremental")) {
+            IncrementalBuild build = new IncrementalBuild(languageParser, TESTING_FOLDER, new File("test/build/dependencies.graph"));
+            try {
+                if (options.contains("--watch")) {
+                    build.watch(testingCases);
+                } else {
+                    build.build(testingCases);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return;
+        }
+
+        if (options.contains("--units")) {
+            for (String testingCase : testingCases) {
+                compileUnits(languageParser, testingCase);
+            }
+            return;
+        }
 
         for (String testingCase : testingCases) {
-            System.out.println("#".repeat(122));
-            // lexer / parsing
-            PROFILER.startProfilingSection("parsing", "parsing '%s'".formatted(testingCase));
-            RootNode rootNode = languageParser.parseSource(TESTING_FOLDER, "%s.ax".formatted(testingCase),
-                    readFile("/test/%s.ax".formatted(testingCase)));
+            compile(languageParser, testingCase);
+        }
 
-            System.out.printf("root contains '%d' statements%n", rootNode.getStatements().size());
-            System.out.printf("root contains '%d' references%n", rootNode.getScopeStash().getAllReferences().size());
+    }
 
-            PROFILER.endProfilingSection("parsing", "parsing of '" + testingCase + "' took %sms");
+    /**
+     * Compiles a testing case from parsing to the exported assembly.
+     *
+     * @return the import graph of the case, like {@link Linker#getImportGraph()}
+     */
+    public static Map<String, List<String>> compile(LanguageParser languageParser, String testingCase) {
+        System.out.println("#".repeat(122));
+        BuildCache.Sources sources = cachedSources(testingCase);
+        if (sources != null && exportCached(testingCase, sources)) {
+            System.out.printf("reused the cached assembly of '%s'%n", testingCase);
+            return sources.importGraph();
+        }
 
-            // linking
-            PROFILER.startProfilingSection("linking", "linking '%s'".formatted(testingCase));
-            Linker linker = new Linker(languageParser, TESTING_FOLDER);
-            LinkedSources linkedSources = linker.linkFiles(rootNode);
+        // lexer / parsing
+        PROFILER.startProfilingSection("parsing", "parsing '%s'".formatted(testingCase));
+        RootNode rootNode = languageParser.parseSource(TESTING_FOLDER, "%s.ax".formatted(testingCase),
+                readFile("/test/%s.ax".formatted(testingCase)));
 
-            System.out.printf("linked-element contains '%d' statements%n", linkedSources.getStatements().size());
-            System.out.printf("linked-element contains '%d' references%n", linkedSources.getScopeStash().getAllReferences().size());
+        System.out.printf("root contains '%d' statements%n", rootNode.getStatements().size());
+        System.out.printf("root contains '%d' references%n", rootNode.getScopeStash().getAllReferences().size());
 
-            PROFILER.endProfilingSection("linking", "linking of '" + testingCase + "' took %sms");
+        PROFILER.endProfilingSection("parsing", "parsing of '" + testingCase + "' took %sms");
 
-            // instruction generation
-            PROFILER.startProfilingSection("instruction", "instruction gen. '%s'".formatted(testingCase));
-            InstructionGenerator instructionGenerator = new InstructionGenerator();
-            InstructionSet instructionSet = instructionGenerator.emit(linkedSources);
-            System.out.printf("generated instruction-set with '%s' internal instructions%n", instructionSet.getInstructions().size());
+        // linking
+        PROFILER.startProfilingSection("linking", "linking '%s'".formatted(testingCase));
+        Linker linker = new Linker(languageParser, TESTING_FOLDER);
+        LinkedSources linkedSources = linker.linkFiles(rootNode);
 
-            PROFILER.endProfilingSection("instruction", "instruction gen. '" + testingCase + "' took %sms");
+        System.out.printf("linked-element contains '%d' statements%n", linkedSources.getStatements().size());
+        System.out.printf("linked-element contains '%d' references%n", linkedSources.getScopeStash().getAllReferences().size());
 
-            // assembly generation
-            PROFILER.startProfilingSection("asm", "ASM gen. '%s'".formatted(testingCase));
-            exportCode(testingCase, instructionSet);
+        PROFILER.endProfilingSection("linking", "linking of '" + testingCase + "' took %sms");
 
+        // instruction generation
+        PROFILER.startProfilingSection("instruction", "instruction gen. '%s'".formatted(testingCase));
+        InstructionGenerator instructionGenerator = new InstructionGenerator();
+        InstructionSet instructionSet = instructionGenerator.emit(linkedSources);
+        System.out.printf("generated instruction-set with '%s' internal instructions%n", instructionSet.getInstructions().size());
 
-            PROFILER.startProfilingSection("asm", "ASM gen. '%s'".formatted(testingCase));
+        PROFILER.endProfilingSection("instruction", "instruction gen. '" + testingCase + "' took %sms");
+
+        // assembly generation
+        PROFILER.startProfilingSection("asm", "ASM gen. '%s'".formatted(testingCase));
+        // a source saved since the key was taken may have been parsed, the code then belongs to no key
+        if (sources != null && !sameSources(sources, cachedSources(testingCase)))
+            sources = null;
+        exportCode(testingCase, instructionSet, sources);
+
+
+        PROFILER.startProfilingSection("asm", "ASM gen. '%s'".formatted(testingCase));
+
+        return linker.getImportGraph();
+    }
+
+    /**
+     * Compiles a testing case like {@link #compile}, but every file into its own assembly in {@link #UNITS_FOLDER}.
+     * modules are linked through their interfaces, the ones unchanged since they last compiled are not compiled again.
+     *
+     * @return the units that were compiled
+     */
+    public static List<CompilationUnit> compileUnits(LanguageParser languageParser, String testingCase) {
+        System.out.println("#".repeat(122));
+
+        PROFILER.startProfilingSection("units", "building units of '%s'".formatted(testingCase));
+        RootNode rootNode = languageParser.parseSource(TESTING_FOLDER, "%s.ax".formatted(testingCase),
+                readFile("/test/%s.ax".formatted(testingCase)));
+
+        Linker linker = new Linker(languageParser, TESTING_FOLDER, ForkJoinPool.commonPool(), true);
+        List<CompilationUnit> units = linker.linkUnits(rootNode);
+
+        List<CompilationUnit> compiled;
+        try {
+            compiled = new BuildScheduler(ForkJoinPool.commonPool(), UNITS_FOLDER, formats).build(units);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
+        System.out.printf("compiled '%d' of '%d' units%n", compiled.size(), units.size());
 
+        PROFILER.endProfilingSection("units", "building units of '" + testingCase + "' took %sms");
+        return compiled;
     }
 
     static final TargetFormat[] formats = {
@@ -82,36 +178,103 @@ public class Main {
             TargetFormat.ARM,
     };
     public static void exportCode(String name, InstructionSet instructionSet) {
+        exportCode(name, instructionSet, null);
+    }
+
+    /**
+     * Exports the code like {@link #exportCode(String, InstructionSet)} and keeps it in the build cache for the sources.
+     */
+    public static void exportCode(String name, InstructionSet instructionSet, BuildCache.Sources sources) {
         File file = new File("./test/build/");
         file.mkdirs();
 
         for (TargetFormat format : formats) {
             AssemblyGenerator<?> generator = format.generatorClass;
 
-            String code = new String(generator.getAssembler(instructionSet));
+            // only depends on the instruction set, the generators clear what they kept of earlier programs
+            byte[] code = generator.getAssembler(instructionSet);
+            if (sources != null) {
+                try {
+                    getBuildCache().put(getBuildCache().key(sources, format), code);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
 
-            writeFile("/test/build/%s_%s.asm".formatted(name, format.name()), code);
+            writeFile(exportPath(name, format), new String(code));
         }
 
     }
 
+    /**
+     * @return the cache of the assembly of earlier builds, created on first use as its keys fingerprint the compiler
+     */
+    public static synchronized BuildCache getBuildCache() {
+        if (buildCache == null)
+            buildCache = new BuildCache(Path.of("test/build/cache"), 256L * 1024 * 1024);
+
+        return buildCache;
+    }
+
+    private static boolean sameSources(BuildCache.Sources sources, BuildCache.Sources current) {
+        return current != null && Arrays.equals(sources.hash(), current.hash());
+    }
+
+    private static BuildCache.Sources cachedSources(String testingCase) {
+        try {
+            return BuildCache.sources(TESTING_FOLDER, new File(TESTING_FOLDER, "%s.ax".formatted(testingCase)));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return if the code of every format was cached and got exported
+     */
+    private static boolean exportCached(String name, BuildCache.Sources sources) {
+        List<byte[]> codes = new ArrayList<>();
+        try {
+            for (TargetFormat format : formats) {
+                byte[] code = getBuildCache().get(getBuildCache().key(sources, format));
+                if (code == null)
+                    return false;
+                codes.add(code);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        new File("./test/build/").mkdirs();
+        for (int i = 0; i < formats.length; i++) {
+            writeFile(exportPath(name, formats[i]), new String(codes.get(i)));
+        }
+        return true;
+    }
+
+    public static String exportPath(String name, TargetFormat format) {
+        return "/test/build/%s_%s.asm".formatted(name, format.name());
+    }
+
+    /**
+     * @return the files {@link #exportCode} writes for the name
+     */
+    public static List<String> exportPaths(String name) {
+        List<String> paths = new ArrayList<>();
+        for (TargetFormat format : formats) {
+            paths.add(exportPath(name, format));
+        }
+        return paths;
+    }
+
     public static String readFile(String name) {
         File file = new File("./" + name);
 
         if (file.exists()) {
-            Scanner scanner = null;
             try {
-                scanner = new Scanner(file);
-            } catch (FileNotFoundException e) {
+                return SourceFile.readContent(file.toPath());
+            } catch (IOException e) {
                 throw new RuntimeException(e);
             }
-            StringBuilder fileContents = new StringBuilder();
-
-            while (scanner.hasNextLine()) {
-                fileContents.append(scanner.nextLine()).append("\n");
-            }
-            scanner.close();
-            return fileContents.toString();
         }
         throw new RuntimeException("file not found in source!");
     }
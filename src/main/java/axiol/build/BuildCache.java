@@ -0,0 +1,238 @@
+package axiol.build;
+
+import axiol.lexer.LanguageLexer;
+import axiol.lexer.TokenBuffer;
+import axiol.lexer.TokenType;
+import axiol.linker.Linker;
+import axiol.linker.ModuleInterface;
+import axiol.target.TargetFormat;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Assembly of earlier builds by the hash of everything it was generated from: the sources of the
+ * entry and every file it links, the target format and the compiler. a hit needs the imports of the
+ * sources but no parsing, linking or generating. entries are written atomically, so builds running at the
+ * same time share the folder, and the least recently used entries are removed once the folder is over budget.
+ */
+public class BuildCache {
+
+    private static final String SUFFIX = ".asm";
+    // part of every key, entries of version 1 may hold the strings of programs generated before theirs
+    private static final int VERSION = 2;
+    // tells builds of a changed compiler apart, its code is part of every key, fingerprinted on first use
+    private static String compilerVersion;
+
+    private final Path folder;
+    private final long budget;
+
+    public BuildCache(Path folder, long budget) {
+        this.folder = folder;
+        this.budget = budget;
+    }
+
+    /**
+     * The sources a build of an entry reads, the entry first and its imports in the order the linker merges them.
+     *
+     * @param hash        the hash of the normalized sources in that order
+     * @param importGraph the files with the files they import, like {@link Linker#getImportGraph()}
+     */
+    public record Sources(byte[] hash, Map<String, List<String>> importGraph) {
+    }
+
+    /**
+     * Finds the imports of the entry by lexing, an import in code the parser would not reach
+     * only makes the key cover one file more than needed.
+     *
+     * @return the sources of the entry, or null if one of them cannot be read, its build reports that
+     */
+    public static Sources sources(File sourceFolder, File entry) throws IOException {
+        String mainPath = Linker.canonicalPath(entry.getAbsolutePath());
+
+        Map<String, List<String>> importGraph = new LinkedHashMap<>();
+        StringBuilder contents = new StringBuilder();
+        if (!collect(sourceFolder, mainPath, mainPath, importGraph, contents))
+            return null;
+
+        return new Sources(ModuleInterface.hash(contents.toString().getBytes(StandardCharsets.UTF_8)), importGraph);
+    }
+
+    private static boolean collect(File sourceFolder, String mainPath, String path,
+                                   Map<String, List<String>> importGraph, StringBuilder contents) throws IOException {
+        Path file = Path.of(path);
+        if (!Files.isRegularFile(file))
+            return false;
+
+        // the line endings the parser reads sources with
+        String content = String.join("\n", Files.readString(file).lines().toList()) + "\n";
+        contents.append(content.length()).append(':').append(content);
+
+        List<String> imports = new ArrayList<>();
+        for (String linkedName : linkedNames(content)) {
+            String importPath = Linker.importPath(sourceFolder, linkedName);
+            if (!importPath.equals(mainPath))
+                imports.add(importPath);
+        }
+        importGraph.put(path, imports);
+
+        for (String importPath : imports) {
+            if (!importGraph.containsKey(importPath) && !collect(sourceFolder, mainPath, importPath, importGraph, contents))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the names of the linked notices of the source, joined like the parser joins them
+     */
+    private static List<String> linkedNames(String content) {
+        TokenBuffer tokens = new LanguageLexer().tokenizeBuffer(content);
+
+        List<String> linkedNames = new ArrayList<>();
+        for (int index = 0; tokens.hasToken(index); index++) {
+            if (!tokens.matches(index, TokenType.LINKED))
+                continue;
+
+            StringBuilder name = new StringBuilder();
+            int current = index + 1;
+            while (tokens.matches(current, TokenType.LITERAL)) {
+                name.append(tokens.getText(current));
+                if (!tokens.matches(current + 1, TokenType.DOT))
+                    break;
+
+                name.append('/');
+                current += 2;
+            }
+
+            if (!name.isEmpty())
+                linkedNames.add(name.toString());
+        }
+        return linkedNames;
+    }
+
+    public String key(Sources sources, TargetFormat format) {
+        String key = VERSION + "\n" + getCompilerVersion() + '\n' + format.name() + '\n' + hex(sources.hash());
+        return hex(ModuleInterface.hash(key.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @return the cached assembly, or null if there is none for the key
+     */
+    public byte[] get(String key) throws IOException {
+        Path entry = folder.resolve(key + SUFFIX);
+        try {
+            byte[] code = Files.readAllBytes(entry);
+            // the modification time is the last use, eviction goes by it
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return code;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    public void put(String key, byte[] code) throws IOException {
+        Files.createDirectories(folder);
+
+        Path temporary = Files.createTempFile(folder, key, ".tmp");
+        try {
+            Files.write(temporary, code);
+            Files.move(temporary, folder.resolve(key + SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        this.evict();
+    }
+
+    /**
+     * Removes the least recently used entries until the cache fits its budget, entries another
+     * build removed first are skipped.
+     */
+    private void evict() throws IOException {
+        List<Path> entries;
+        try (Stream<Path> files = Files.list(folder)) {
+            entries = files.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).toList();
+        }
+
+        Map<Path, FileTime> used = new LinkedHashMap<>();
+        long size = 0;
+        for (Path entry : entries) {
+            try {
+                used.put(entry, Files.getLastModifiedTime(entry));
+                size += Files.size(entry);
+            } catch (NoSuchFileException e) {
+                used.remove(entry);
+            }
+        }
+        if (size <= budget)
+            return;
+
+        List<Path> leastRecent = new ArrayList<>(used.keySet());
+        leastRecent.sort(Comparator.comparing(used::get));
+        for (Path entry : leastRecent) {
+            if (size <= budget)
+                break;
+            try {
+                size -= Files.size(entry);
+                Files.delete(entry);
+            } catch (NoSuchFileException ignored) {
+            }
+        }
+    }
+
+    private static synchronized String getCompilerVersion() {
+        if (compilerVersion == null)
+            compilerVersion = compilerVersion();
+
+        return compilerVersion;
+    }
+
+    /**
+     * @return the version of the compiler together with a fingerprint of its classes,
+     * so a rebuilt compiler without a new version does not reuse what the old one generated
+     */
+    private static String compilerVersion() {
+        StringBuilder version = new StringBuilder(String.valueOf(BuildCache.class.getPackage().getImplementationVersion()));
+
+        CodeSource codeSource = BuildCache.class.getProtectionDomain().getCodeSource();
+        try {
+            Path code = codeSource == null ? null : Path.of(codeSource.getLocation().toURI());
+            if (code != null) {
+                List<Path> files;
+                try (Stream<Path> walk = Files.walk(code)) {
+                    files = walk.filter(Files::isRegularFile).sorted().toList();
+                }
+                for (Path file : files) {
+                    version.append('\n').append(code.relativize(file))
+                            .append(' ').append(Files.size(file))
+                            .append(' ').append(Files.getLastModifiedTime(file).toMillis());
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            // without a fingerprint the version alone tells compilers apart
+        }
+        return hex(ModuleInterface.hash(version.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte value : bytes) {
+            hex.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,163 @@
+package axiol.build;
+
+import axiol.instruction.InstructionGenerator;
+import axiol.instruction.InstructionSet;
+import axiol.linker.CompilationUnit;
+import axiol.parser.util.error.LanguageException;
+import axiol.target.AssemblyGenerator;
+import axiol.target.TargetFormat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Compiles the units of {@link axiol.linker.Linker#linkUnits} into one assembly file per unit and format.
+ * units are independent once linked, so the changed ones compile in parallel on a {@link ForkJoinPool}.
+ * they are submitted by the length of their import chain from the main unit, deepest first, so the units
+ * a build with ordered dependencies would wait on the longest are never left for the end.
+ */
+public class BuildScheduler {
+
+    private final ForkJoinPool pool;
+    private final File outputFolder;
+    private final TargetFormat[] formats;
+
+    public BuildScheduler(ForkJoinPool pool, File outputFolder, TargetFormat... formats) {
+        this.pool = pool;
+        this.outputFolder = outputFolder;
+        this.formats = formats;
+    }
+
+    /**
+     * @param units the units with the main unit first
+     * @return the units that were compiled
+     */
+    public List<CompilationUnit> build(List<CompilationUnit> units) throws IOException {
+        Files.createDirectories(outputFolder.toPath());
+        checkNames(units);
+
+        Map<CompilationUnit, Integer> depths = depths(units);
+        List<CompilationUnit> changed = new ArrayList<>(units.stream().filter(CompilationUnit::isChanged).toList());
+        changed.sort(Comparator.comparing(depths::get, Comparator.reverseOrder()));
+
+        CompilationUnit main = units.get(0);
+        List<Callable<CompilationUnit>> tasks = new ArrayList<>();
+        for (CompilationUnit unit : changed) {
+            tasks.add(() -> {
+                this.compile(unit, unit != main);
+                unit.markCompiled();
+                return unit;
+            });
+        }
+
+        try {
+            for (Future<CompilationUnit> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException exception)
+                throw exception;
+            if (e.getCause() instanceof IOException exception)
+                throw exception;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while building", e);
+        }
+        return changed;
+    }
+
+    private void compile(CompilationUnit unit, boolean module) throws IOException {
+        InstructionSet instructionSet = new InstructionGenerator().emit(unit.getSources());
+        instructionSet.setModule(module);
+
+        for (TargetFormat format : formats) {
+            AssemblyGenerator<?> generator = format.generatorClass;
+
+            // the generators of the formats are shared and keep the strings of the program they generate
+            byte[] code;
+            synchronized (generator) {
+                code = generator.getAssembler(instructionSet);
+            }
+            Files.write(outputPath(unit, format), code);
+        }
+    }
+
+    /**
+     * Rejects units with the same name, they would be compiled in parallel into the same output.
+     */
+    private static void checkNames(List<CompilationUnit> units) {
+        Map<String, CompilationUnit> byName = new HashMap<>();
+        for (CompilationUnit unit : units) {
+            CompilationUnit other = byName.putIfAbsent(unit.getName(), unit);
+            if (other != null) {
+                new LanguageException("File '%s' and file '%s' are both compiled into the output '%s'!",
+                        other.getPath(), unit.getPath(), unit.getName()).throwError();
+            }
+        }
+    }
+
+    public Path outputPath(CompilationUnit unit, TargetFormat format) {
+        return outputFolder.toPath().resolve("%s_%s.asm".formatted(unit.getName(), format.name()));
+    }
+
+    /**
+     * @return the longest import chain from the main unit to every unit, imports back into the chain are skipped
+     */
+    private static Map<CompilationUnit, Integer> depths(List<CompilationUnit> units) {
+        Map<String, CompilationUnit> byPath = new HashMap<>();
+        for (CompilationUnit unit : units) {
+            byPath.put(unit.getPath(), unit);
+        }
+
+        // reverse post order, every import edge but the ones closing a cycle points forward
+        List<CompilationUnit> order = new ArrayList<>();
+        postOrder(units.get(0), byPath, new HashSet<>(), order);
+        Collections.reverse(order);
+
+        Map<CompilationUnit, Integer> position = new HashMap<>();
+        Map<CompilationUnit, Integer> depths = new HashMap<>();
+        for (int i = 0; i < order.size(); i++) {
+            position.put(order.get(i), i);
+        }
+        for (CompilationUnit unit : units) {
+            depths.put(unit, 0);
+        }
+
+        for (CompilationUnit unit : order) {
+            for (String path : unit.getImports()) {
+                CompilationUnit imported = byPath.get(path);
+                if (imported != null && position.get(imported) > position.get(unit))
+                    depths.merge(imported, depths.get(unit) + 1, Math::max);
+            }
+        }
+        return depths;
+    }
+
+    private static void postOrder(CompilationUnit unit, Map<String, CompilationUnit> byPath,
+                                  Set<CompilationUnit> visited, List<CompilationUnit> order) {
+        if (!visited.add(unit))
+            return;
+
+        for (String path : unit.getImports()) {
+            CompilationUnit imported = byPath.get(path);
+            if (imported != null)
+                postOrder(imported, byPath, visited, order);
+        }
+        order.add(unit);
+    }
+}
@@ -0,0 +1,202 @@
+package axiol.build;
+
+import axiol.instruction.InstructionGenerator;
+import axiol.instruction.InstructionSet;
+import axiol.linker.LinkedSources;
+import axiol.linker.Linker;
+import axiol.linker.ModuleCache;
+import axiol.parser.LanguageParser;
+import axiol.parser.tree.RootNode;
+import axiol.parser.util.SourceFile;
+import axiol.parser.util.error.LanguageException;
+import axiol.target.AssemblyGenerator;
+import axiol.target.TargetFormat;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Keeps a compiler running on a unix domain socket, so small compile jobs skip starting the jvm,
+ * loading the lexer and parsing the modules they import. requests are one line each:
+ * <pre>
+ * compile X86,ARM /path/to/entry.ax
+ * stop
+ * </pre>
+ * a compile answers with an {@code output <path>} line per written file or {@code error <line>} lines
+ * for the diagnostics, followed by {@code ok} or {@code failed}. the outputs go to a build folder next to the entry.
+ * requests are compiled one at a time, linking hands the references of the cached modules to the linked file.
+ */
+public class CompilerDaemon {
+
+    private static final String SUFFIX = ".ax";
+
+    private final Path socketPath;
+    private final LanguageParser languageParser = new LanguageParser();
+    private final ModuleCache moduleCache;
+
+    public CompilerDaemon(Path socketPath, long cacheBudget) {
+        this.socketPath = socketPath;
+        this.moduleCache = new ModuleCache(cacheBudget);
+    }
+
+    /**
+     * Serves requests until a stop request or until the thread is interrupted.
+     */
+    public void serve() throws IOException {
+        Files.deleteIfExists(socketPath);
+
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+
+            boolean running = true;
+            while (running && !Thread.currentThread().isInterrupted()) {
+                try (SocketChannel channel = server.accept()) {
+                    running = this.handle(channel);
+                } catch (IOException e) {
+                    // the client went away, the next one is served anyway
+                    System.err.printf("daemon request failed: %s%n", e.getMessage());
+                }
+                // no tree of the request is used anymore
+                moduleCache.trim();
+            }
+        } finally {
+            Files.deleteIfExists(socketPath);
+        }
+    }
+
+    /**
+     * @return if the daemon keeps serving
+     */
+    private boolean handle(SocketChannel channel) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+
+        String request = reader.readLine();
+        if (request == null)
+            return true;
+
+        String[] parts = request.split(" ", 3);
+        switch (parts[0]) {
+            case "compile" -> {
+                if (parts.length < 3) {
+                    writer.println("error expected 'compile <formats> <entry>'");
+                    writer.println("failed");
+                    break;
+                }
+
+                try {
+                    for (Path output : this.compile(new File(parts[2]), parseFormats(parts[1]))) {
+                        writer.println("output " + output);
+                    }
+                    writer.println("ok");
+                } catch (RuntimeException | IOException e) {
+                    diagnostic(e).lines().forEach(line -> writer.println("error " + line));
+                    writer.println("failed");
+                }
+            }
+            case "stop" -> {
+                writer.println("ok");
+                writer.flush();
+                return false;
+            }
+            default -> {
+                writer.println("error unknown request '%s'".formatted(parts[0]));
+                writer.println("failed");
+            }
+        }
+        writer.flush();
+        return true;
+    }
+
+    private static List<TargetFormat> parseFormats(String formats) {
+        List<TargetFormat> targetFormats = new ArrayList<>();
+        for (String format : formats.split(",")) {
+            targetFormats.add(TargetFormat.valueOf(format.trim()));
+        }
+        return targetFormats;
+    }
+
+    /**
+     * @return the diagnostic of the language error behind the exception, or the exception if it is none
+     */
+    private static String diagnostic(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof LanguageException exception)
+                return exception.getDiagnostic();
+        }
+        return throwable.toString();
+    }
+
+    /**
+     * Compiles the entry like {@link axiol.Main#compile}, with the imports taken from the module cache.
+     *
+     * @return the written outputs
+     */
+    public List<Path> compile(File entry, List<TargetFormat> formats) throws IOException {
+        File sourceFolder = entry.getAbsoluteFile().getParentFile();
+        String name = entry.getName().endsWith(SUFFIX)
+                ? entry.getName().substring(0, entry.getName().length() - SUFFIX.length())
+                : entry.getName();
+
+        String content = SourceFile.readContent(entry.toPath());
+        RootNode rootNode = languageParser.parseSource(sourceFolder, entry.getName(), content);
+
+        Linker linker = new Linker(languageParser, sourceFolder, ForkJoinPool.commonPool(), false, moduleCache);
+        LinkedSources linkedSources = linker.linkFiles(rootNode);
+        InstructionSet instructionSet = new InstructionGenerator().emit(linkedSources);
+
+        Path outputFolder = sourceFolder.toPath().resolve("build");
+        Files.createDirectories(outputFolder);
+
+        List<Path> outputs = new ArrayList<>();
+        for (TargetFormat format : formats) {
+            AssemblyGenerator<?> generator = format.generatorClass;
+
+            Path output = outputFolder.resolve("%s_%s.asm".formatted(name, format.name()));
+            Files.write(output, generator.getAssembler(instructionSet));
+            outputs.add(output);
+        }
+        return outputs;
+    }
+
+    public ModuleCache getModuleCache() {
+        return moduleCache;
+    }
+
+    /**
+     * Sends a request to a running daemon.
+     *
+     * @return the lines of the answer
+     */
+    public static List<String> request(Path socketPath, String request) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            PrintWriter writer = new PrintWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+            writer.println(request);
+            writer.flush();
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            List<String> lines = new ArrayList<>();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lines.add(line);
+                if (line.equals("ok") || line.equals("failed"))
+                    break;
+            }
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package axiol.build;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What the last builds saw of the sources: the content hash and imports of every file and the outputs
+ * of every built main file. stored between builds, so the next build only recompiles the main files
+ * that depend on a changed file, through any number of imports.
+ */
+public class DependencyGraph {
+
+    private static final int MAGIC = 0x41584447;
+    private static final int VERSION = 1;
+
+    // content hash of every file when it was last built
+    private final Map<String, byte[]> hashes = new HashMap<>();
+    // canonical paths of the files every file imports
+    private final Map<String, List<String>> imports = new HashMap<>();
+    // outputs of every built main file
+    private final Map<String, List<String>> outputs = new LinkedHashMap<>();
+
+    /**
+     * @return the graph stored at the path, or an empty graph if it is missing or damaged
+     */
+    public static DependencyGraph read(Path path) throws IOException {
+        DependencyGraph graph = new DependencyGraph();
+        if (!Files.isRegularFile(path))
+            return graph;
+
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                return graph;
+
+            for (int count = in.readInt(); count > 0; count--) {
+                String file = in.readUTF();
+                byte[] hash = new byte[in.readInt()];
+                in.readFully(hash);
+
+                graph.hashes.put(file, hash);
+                graph.imports.put(file, readList(in));
+            }
+            for (int count = in.readInt(); count > 0; count--) {
+                graph.outputs.put(in.readUTF(), readList(in));
+            }
+        } catch (EOFException e) {
+            return new DependencyGraph();
+        }
+        return graph;
+    }
+
+    private static List<String> readList(DataInputStream in) throws IOException {
+        List<String> list = new ArrayList<>();
+        for (int count = in.readInt(); count > 0; count--) {
+            list.add(in.readUTF());
+        }
+        return list;
+    }
+
+    /**
+     * Writes the graph next to a temporary name first, so an interrupted build never leaves a partial graph.
+     */
+    public void write(Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temporary))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(hashes.size());
+            for (Map.Entry<String, byte[]> entry : hashes.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+                writeList(out, imports.getOrDefault(entry.getKey(), List.of()));
+            }
+
+            out.writeInt(outputs.size());
+            for (Map.Entry<String, List<String>> entry : outputs.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeList(out, entry.getValue());
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeList(DataOutputStream out, List<String> list) throws IOException {
+        out.writeInt(list.size());
+        for (String element : list) {
+            out.writeUTF(element);
+        }
+    }
+
+    /**
+     * @param currentHashes the current content hash of a file, null if it does not exist anymore
+     * @return the files whose content is not the content they were last built with
+     */
+    public Set<String> changedFiles(HashFunction currentHashes) throws IOException {
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, byte[]> entry : hashes.entrySet()) {
+            if (!Arrays.equals(entry.getValue(), currentHashes.hash(entry.getKey())))
+                changed.add(entry.getKey());
+        }
+        return changed;
+    }
+
+    /**
+     * @return the files together with every file importing one of them, directly or through other files
+     */
+    public Set<String> dependents(Set<String> files) {
+        Map<String, List<String>> importedBy = new HashMap<>();
+        imports.forEach((file, imported) -> {
+            for (String path : imported) {
+                importedBy.computeIfAbsent(path, key -> new ArrayList<>()).add(file);
+            }
+        });
+
+        Set<String> dependents = new HashSet<>(files);
+        Deque<String> queue = new ArrayDeque<>(files);
+        while (!queue.isEmpty()) {
+            for (String file : importedBy.getOrDefault(queue.pop(), List.of())) {
+                if (dependents.add(file))
+                    queue.push(file);
+            }
+        }
+        return dependents;
+    }
+
+    /**
+     * Records a built main file with the import graph it was built from and the hashes its files had before.
+     */
+    public void record(String mainPath, Map<String, List<String>> importGraph, Map<String, byte[]> fileHashes,
+                       List<String> producedOutputs) {
+        importGraph.forEach((file, imported) -> {
+            // a file without a hash could not be read, it counts as changed until it was built again
+            this.hashes.put(file, fileHashes.getOrDefault(file, new byte[0]));
+            this.imports.put(file, imported);
+        });
+        this.outputs.put(mainPath, producedOutputs);
+        this.prune();
+    }
+
+    /**
+     * Forgets a main file, so it is built again by the next build.
+     */
+    public void forget(String mainPath) {
+        this.outputs.remove(mainPath);
+        this.prune();
+    }
+
+    // drops the files no built main file reaches anymore
+    private void prune() {
+        Set<String> reachable = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>(outputs.keySet());
+        while (!queue.isEmpty()) {
+            String file = queue.pop();
+            if (reachable.add(file))
+                queue.addAll(imports.getOrDefault(file, List.of()));
+        }
+
+        this.hashes.keySet().retainAll(reachable);
+        this.imports.keySet().retainAll(reachable);
+    }
+
+    public boolean isBuilt(String mainPath) {
+        return outputs.containsKey(mainPath);
+    }
+
+    public List<String> getOutputs(String mainPath) {
+        return outputs.getOrDefault(mainPath, List.of());
+    }
+
+    public interface HashFunction {
+        byte[] hash(String path) throws IOException;
+    }
+}
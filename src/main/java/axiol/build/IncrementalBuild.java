@@ -0,0 +1,147 @@
+package axiol.build;
+
+import axiol.Main;
+import axiol.linker.ModuleInterface;
+import axiol.parser.LanguageParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Builds testing cases like {@link Main#compile}, but only the ones that depend on a file changed since
+ * the last build or whose outputs are missing. the import graph of every build is kept in a {@link DependencyGraph},
+ * so the next build knows which cases a file reaches through its imports without parsing anything.
+ */
+public class IncrementalBuild {
+
+    private static final String SUFFIX = ".ax";
+    // saving in an editor fires several events, they are collected into one build
+    private static final long SETTLE_MILLIS = 100;
+
+    private final LanguageParser languageParser;
+    private final File sourceFolder;
+    private final Path graphPath;
+
+    public IncrementalBuild(LanguageParser languageParser, File sourceFolder, File graphFile) {
+        this.languageParser = languageParser;
+        this.sourceFolder = sourceFolder;
+        this.graphPath = graphFile.toPath();
+    }
+
+    /**
+     * @return the testing cases that were compiled
+     */
+    public List<String> build(String... testingCases) throws IOException {
+        DependencyGraph graph = DependencyGraph.read(graphPath);
+
+        // hashed before compiling, so a file saved while it compiles counts as changed on the next build
+        Map<String, byte[]> hashes = new HashMap<>();
+        Set<String> dirty = graph.dependents(graph.changedFiles(path -> hash(hashes, path)));
+
+        List<String> compiled = new ArrayList<>();
+        try {
+            for (String testingCase : testingCases) {
+                String mainPath = new File(sourceFolder, testingCase + SUFFIX).getCanonicalPath();
+                if (graph.isBuilt(mainPath) && !dirty.contains(mainPath) && outputsExist(graph.getOutputs(mainPath)))
+                    continue;
+
+                graph.forget(mainPath);
+                Map<String, List<String>> importGraph = Main.compile(languageParser, testingCase);
+                for (String path : importGraph.keySet()) {
+                    hash(hashes, path);
+                }
+
+                graph.record(mainPath, importGraph, hashes, Main.exportPaths(testingCase));
+                compiled.add(testingCase);
+            }
+        } finally {
+            graph.write(graphPath);
+        }
+        return compiled;
+    }
+
+    private static byte[] hash(Map<String, byte[]> hashes, String path) throws IOException {
+        if (!hashes.containsKey(path)) {
+            Path file = Path.of(path);
+            hashes.put(path, Files.isRegularFile(file) ? ModuleInterface.hash(Files.readAllBytes(file)) : null);
+        }
+        return hashes.get(path);
+    }
+
+    private static boolean outputsExist(List<String> outputs) {
+        for (String output : outputs) {
+            if (!new File("./" + output).exists())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Builds the testing cases and builds them again whenever a source file below the source folder
+     * is saved, until the thread is interrupted. a failing build is reported and watching goes on.
+     */
+    public void watch(String... testingCases) throws IOException {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            register(watchService, sourceFolder.toPath());
+            this.rebuild(testingCases);
+
+            while (true) {
+                boolean sourceChanged = false;
+                WatchKey key = watchService.take();
+                do {
+                    Path folder = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            sourceChanged = true;
+                            continue;
+                        }
+
+                        Path path = folder.resolve((Path) event.context());
+                        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path))
+                            register(watchService, path);
+                        if (path.getFileName().toString().endsWith(SUFFIX))
+                            sourceChanged = true;
+                    }
+                    key.reset();
+                } while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null);
+
+                if (sourceChanged)
+                    this.rebuild(testingCases);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void rebuild(String... testingCases) throws IOException {
+        try {
+            List<String> compiled = this.build(testingCases);
+            System.out.printf("rebuilt %s of %d testing cases%n", compiled, testingCases.length);
+        } catch (RuntimeException e) {
+            System.out.printf("build failed: %s%n", e.getMessage());
+        }
+    }
+
+    private static void register(WatchService watchService, Path folder) throws IOException {
+        try (Stream<Path> folders = Files.walk(folder)) {
+            for (Path path : (Iterable<Path>) folders.filter(Files::isDirectory)::iterator) {
+                path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package axiol.build;
+
+import axiol.linker.CompilationUnit;
+import axiol.linker.Linker;
+import axiol.linker.ModuleInterface;
+import axiol.parser.LanguageParser;
+import axiol.parser.util.error.LanguageException;
+import axiol.target.TargetFormat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class TestBuildScheduler {
+
+    private static final int WIDE_MODULES = 20;
+    private static final int FUNCTIONS = 40;
+    private static final TargetFormat[] FORMATS = {TargetFormat.X86, TargetFormat.ARM};
+
+    public static void main(String[] args) throws IOException {
+        LanguageParser languageParser = new LanguageParser();
+        Path folder = Files.createTempDirectory("axiol-units");
+        Map<String, List<String>> graph = graph();
+
+        // the linker joins import paths with '\\', outside of windows the modules are files next to the folder
+        List<Path> modules = new ArrayList<>();
+        for (String name : graph.keySet()) {
+            if (!name.equals("main"))
+                modules.add(pathOf(folder, name));
+        }
+
+        try {
+            for (Map.Entry<String, List<String>> entry : graph.entrySet()) {
+                Files.writeString(pathOf(folder, entry.getKey()), source(entry.getKey(), entry.getValue(), FUNCTIONS));
+            }
+
+            testColdBuild(languageParser, folder, graph);
+            testWarmBuild(languageParser, folder);
+            testEditedLeaf(languageParser, folder, graph);
+            testOrderIndependence(languageParser, folder);
+            testNestedNames(languageParser, folder);
+        } finally {
+            for (Path module : modules) {
+                Files.deleteIfExists(module);
+                Files.deleteIfExists(ModuleInterface.pathOf(module));
+            }
+            try (Stream<Path> files = Files.walk(folder)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    public static void testColdBuild(LanguageParser languageParser, Path folder, Map<String, List<String>> graph) throws IOException {
+        System.out.println("-".repeat(100));
+
+        long start = System.nanoTime();
+        List<CompilationUnit> units = link(languageParser, folder);
+        BuildScheduler scheduler = scheduler(folder);
+        List<CompilationUnit> compiled = scheduler.build(units);
+        double time = (System.nanoTime() - start) / 1_000_000.0;
+
+        check(units.size() == graph.size(), "every file of the graph is a unit");
+        check(compiled.size() == graph.size(), "a cold build compiles every unit");
+        for (CompilationUnit unit : units) {
+            for (TargetFormat format : FORMATS) {
+                check(Files.isRegularFile(scheduler.outputPath(unit, format)), "every unit has assembly for every format");
+            }
+            if (unit != units.get(0))
+                check(Files.isRegularFile(ModuleInterface.pathOf(Path.of(unit.getPath()))), "every compiled module has an interface");
+        }
+        System.out.printf("cold build of %s units in %.1fms%n", units.size(), time);
+    }
+
+    public static void testWarmBuild(LanguageParser languageParser, Path folder) throws IOException {
+        System.out.println("-".repeat(100));
+
+        List<CompilationUnit> units = link(languageParser, folder);
+        Set<String> compiled = paths(scheduler(folder).build(units));
+
+        check(compiled.equals(Set.of(units.get(0).getPath())), "a warm build only compiles the main unit, but compiled " + compiled);
+        System.out.printf("warm build compiled %s units%n", compiled.size());
+    }
+
+    public static void testEditedLeaf(LanguageParser languageParser, Path folder, Map<String, List<String>> graph) throws IOException {
+        System.out.println("-".repeat(100));
+
+        // imported by most of the graph, but no interface of an importing module depends on its content
+        String leaf = "mg";
+        Path leafPath = pathOf(folder, leaf);
+        Files.writeString(leafPath, source(leaf, graph.get(leaf), FUNCTIONS + 1));
+
+        List<CompilationUnit> units = link(languageParser, folder);
+        Set<String> compiled = paths(scheduler(folder).build(units));
+
+        check(compiled.equals(Set.of(units.get(0).getPath(), Linker.canonicalPath(leafPath.toString()))),
+                "editing a leaf compiles the leaf and main, but compiled " + compiled);
+        System.out.printf("build after editing %s compiled %s units%n", leaf, compiled.size());
+    }
+
+    public static void testOrderIndependence(LanguageParser languageParser, Path folder) throws IOException {
+        System.out.println("-".repeat(100));
+
+        // without module interfaces every unit has code to compile
+        List<CompilationUnit> units = new Linker(languageParser, folder.toFile(), ForkJoinPool.commonPool(), false)
+                .linkUnits(languageParser.parseSource(folder.toFile(), "main.ax", Files.readString(folder.resolve("main.ax"))));
+        BuildScheduler together = new BuildScheduler(ForkJoinPool.commonPool(), folder.resolve("together").toFile(), FORMATS);
+        BuildScheduler alone = new BuildScheduler(ForkJoinPool.commonPool(), folder.resolve("alone").toFile(), FORMATS);
+        together.build(units);
+
+        // every module on its own after main, in the reverse order of the graph
+        for (int i = units.size() - 1; i > 0; i--) {
+            CompilationUnit unit = units.get(i);
+            alone.build(List.of(units.get(0), unit));
+            for (TargetFormat format : FORMATS) {
+                check(Files.readString(together.outputPath(unit, format)).equals(Files.readString(alone.outputPath(unit, format))),
+                        "the assembly of " + unit.getName() + " does not depend on the units compiled before it");
+            }
+        }
+        System.out.printf("assembly of %s units independent of the build order%n", units.size() - 1);
+    }
+
+    public static void testNestedNames(LanguageParser languageParser, Path folder) throws IOException {
+        System.out.println("-".repeat(100));
+        // the parser joins the parts of a linked name with '/'
+        Path xUtil = Path.of(Linker.importPath(folder.toFile(), "x/util"));
+        Path yUtil = Path.of(Linker.importPath(folder.toFile(), "y/util"));
+        Path main = folder.resolve("nested.ax");
+        Path clashing = folder.resolve("x.util.ax");
+        try {
+            String source = "linked x.util;\nlinked y.util;\nfunction main() -> i32 {\n    return 0;\n}\n";
+            Files.writeString(main, source);
+            Files.writeString(clashing, source);
+            Files.createDirectories(xUtil.getParent());
+            Files.createDirectories(yUtil.getParent());
+            Files.writeString(xUtil, "function x_util() -> i32 {\n    return 1;\n}\n");
+            Files.writeString(yUtil, "function y_util() -> i32 {\n    return 2;\n}\n");
+
+            List<CompilationUnit> units = link(languageParser, folder, "nested.ax");
+            scheduler(folder).build(units);
+            Set<String> names = units.stream().map(CompilationUnit::getName).collect(Collectors.toSet());
+            check(names.equals(Set.of("nested", "x.util", "y.util")), "modules of the same name in other folders are named by their path, but got " + names);
+            Set<String> codes = new HashSet<>();
+            for (CompilationUnit unit : units) {
+                codes.add(Files.readString(scheduler(folder).outputPath(unit, TargetFormat.X86)));
+            }
+            check(codes.size() == units.size(), "every unit has its own output");
+
+            boolean failed = false;
+            try {
+                scheduler(folder).build(link(languageParser, folder, "x.util.ax"));
+            } catch (LanguageException e) {
+                failed = true;
+            }
+            check(failed, "a main file named like a module is rejected");
+            System.out.printf("%s nested modules compiled into their own outputs%n", units.size() - 1);
+        } finally {
+            for (Path file : List.of(xUtil, yUtil, ModuleInterface.pathOf(xUtil), ModuleInterface.pathOf(yUtil),
+                    xUtil.getParent(), yUtil.getParent(), main, clashing)) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * @return a graph of 28 files by name with the names each of them links, chains and diamonds
+     * below main and a wide layer of modules next to them
+     */
+    private static Map<String, List<String>> graph() {
+        Map<String, List<String>> graph = new LinkedHashMap<>();
+        List<String> main = new ArrayList<>(List.of("ma", "mb", "mc", "md"));
+        for (int i = 0; i < WIDE_MODULES; i++) {
+            main.add("mw" + i);
+        }
+        graph.put("main", main);
+        graph.put("ma", List.of("me", "mf"));
+        graph.put("mb", List.of("me", "mf", "ma"));
+        graph.put("mc", List.of("mg"));
+        graph.put("md", List.of("mc", "me"));
+        graph.put("me", List.of("mg"));
+        graph.put("mf", List.of());
+        graph.put("mg", List.of());
+        for (int i = 0; i < WIDE_MODULES; i++) {
+            graph.put("mw" + i, i % 2 == 0 ? List.of() : List.of("mg"));
+        }
+        return graph;
+    }
+
+    private static String source(String name, List<String> links, int functions) {
+        StringBuilder builder = new StringBuilder();
+        for (String link : links) {
+            builder.append("linked ").append(link).append(";\n");
+        }
+
+        if (name.equals("main")) {
+            builder.append("function main() -> i32 {\n    return 0;\n}\n");
+            return builder.toString();
+        }
+
+        builder.append("namespace %1$s {\n    function g() -> i32 {\n        str label = \"%1$s\";\n        return 1;\n    }\n}\n".formatted(name));
+        for (int i = 0; i < functions; i++) {
+            builder.append("""
+                    function %1$s_f%2$s(%1$s_x: i32, %1$s_y: i32) -> i32 {
+                        i32 %1$s_z = %1$s_x * %2$s + %1$s_y;
+                        if (%1$s_z > 3) { return %1$s_z; }
+                        return %1$s_x;
+                    }
+                    """.formatted(name, i));
+        }
+        return builder.toString();
+    }
+
+    private static List<CompilationUnit> link(LanguageParser languageParser, Path folder) throws IOException {
+        return link(languageParser, folder, "main.ax");
+    }
+
+    private static List<CompilationUnit> link(LanguageParser languageParser, Path folder, String main) throws IOException {
+        return new Linker(languageParser, folder.toFile(), ForkJoinPool.commonPool(), true)
+                .linkUnits(languageParser.parseSource(folder.toFile(), main, Files.readString(folder.resolve(main))));
+    }
+
+    private static BuildScheduler scheduler(Path folder) {
+        return new BuildScheduler(ForkJoinPool.commonPool(), folder.resolve("build").toFile(), FORMATS);
+    }
+
+    /**
+     * @return the path of the file with the name, modules where the linker looks for them
+     */
+    private static Path pathOf(Path folder, String name) {
+        return name.equals("main") ? folder.resolve("main.ax") : Path.of(Linker.importPath(folder.toFile(), name));
+    }
+
+    private static Set<String> paths(List<CompilationUnit> units) {
+        return units.stream().map(CompilationUnit::getPath).collect(Collectors.toSet());
+    }
+
+    private static void check(boolean condition, String expectation) {
+        if (!condition)
+            throw new IllegalStateException("expected that " + expectation);
+    }
+}
@@ -6,11 +6,21 @@ import java.util.List;
 public class InstructionSet {
 
     private final List<ProgramElement> instructions = new ArrayList<>();
+    // a module of a separate compilation, it has no entry point
+    private boolean module;
 
     public List<ProgramElement> getInstructions() {
         return instructions;
     }
 
+    public boolean isModule() {
+        return module;
+    }
+
+    public void setModule(boolean module) {
+        this.module = module;
+    }
+
     @Override
     public String toString() {
         return "InstructionSet{" +
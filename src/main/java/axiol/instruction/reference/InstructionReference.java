@@ -9,6 +9,8 @@ import axiol.types.Type;
 public class InstructionReference extends Reference {
 
     private final int id;
+    // the reference of the variable, function or temporary value this one refers to
+    private final Reference source;
 
     public InstructionReference(Reference reference, int id) {
         super(reference.getType(), reference.getName(), reference.getLocation(),
@@ -16,12 +18,30 @@ public class InstructionReference extends Reference {
                 reference.getAccess());
 
         this.id = id;
+        this.source = reference;
     }
 
     public InstructionReference(ReferenceType type, Namespace namespace, String name,
                                 Type valueType, int id, Accessibility... access) {
         super(type, name, namespace, valueType, access);
         this.id = id;
+        this.source = this;
+    }
+
+    /**
+     * References are equal if they refer to the same value, every use of a variable creates its own
+     * instruction reference while temporary values of the same name and type are still separate values.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof InstructionReference reference)) return false;
+        return source == reference.source;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(source);
     }
 
     public int getId() {
@@ -0,0 +1,101 @@
+package axiol.lexer;
+
+import axiol.lexer.automaton.TokenAutomaton;
+import axiol.parser.util.error.Position;
+
+import java.util.List;
+
+/**
+ * Lexer running on a {@link TokenAutomaton}, either compiled at runtime from the rules of
+ * a {@link Lexer} or generated into code at build time.
+ * the input is scanned once from left to right using longest match, producing
+ * the same tokens as {@link Lexer#tokenize(String, boolean)}.
+ * the automaton and keyword table are immutable and all scan state is local to a call,
+ * so one instance can tokenize multiple files on different threads at once.
+ */
+public class CompiledLexer {
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private final TokenAutomaton automaton;
+    private final KeywordTable keywords;
+
+    public CompiledLexer(TokenAutomaton automaton, KeywordTable keywords) {
+        this.automaton = automaton;
+        this.keywords = keywords;
+    }
+
+    public List<Token> tokenize(String input, boolean skipWhiteSpace) {
+        return tokenizeBuffer(input, skipWhiteSpace).toTokens();
+    }
+
+    public TokenBuffer tokenizeBuffer(String input, boolean skipWhiteSpace) {
+        // rough guess of one token every 4 chars to avoid most of the array growth
+        TokenBuffer tokens = new TokenBuffer(input, input.length() / 4);
+        this.tokenizeRange(input, 0, input.length(), skipWhiteSpace, tokens);
+
+        return tokens;
+    }
+
+    /**
+     * Lexes the chars [from, to) of the input into the buffer, no token may cross one of the bounds.
+     */
+    void tokenizeRange(String input, int from, int to, boolean skipWhiteSpace, TokenBuffer tokens) {
+        int offset = from;
+        int length = to;
+        NumberLiteral number = new NumberLiteral();
+
+        while (offset < length) {
+            int state = automaton.getStartState();
+            int matchedEnd = -1;
+            int matchedType = TokenAutomaton.NO_TOKEN;
+
+            for (int index = offset; index < length; index++) {
+                state = automaton.next(state, input.charAt(index));
+                if (state == TokenAutomaton.DEAD_STATE)
+                    break;
+
+                int acceptType = automaton.acceptType(state);
+                if (acceptType != TokenAutomaton.NO_TOKEN) {
+                    matchedEnd = index + 1;
+                    matchedType = acceptType;
+                }
+            }
+
+            if (matchedEnd < 0) {
+                Position position = LineIndex.of(input).positionOf(offset);
+                throw new UnknownTokenException("Unknown token encountered at line %s, column %s, token: %s"
+                        .formatted(position.line(), position.column(), input.charAt(offset)));
+            }
+
+            TokenType type = TOKEN_TYPES[matchedType];
+            if (type == TokenType.LITERAL) {
+                TokenType keyword = keywords.lookup(input, offset, matchedEnd);
+                if (keyword != null)
+                    type = keyword;
+            }
+            if (type == TokenType.LITERAL) {
+                int symbol = Identifiers.intern(input, offset, matchedEnd);
+                tokens.add(type, offset, matchedEnd, symbol);
+            } else if (NumberLiteral.isNumber(type)) {
+                number.decode(type, input, offset, matchedEnd);
+                tokens.add(type, offset, matchedEnd, number);
+            } else if (!skipWhiteSpace || type != TokenType.WHITESPACE) {
+                tokens.add(type, offset, matchedEnd);
+            }
+            offset = matchedEnd;
+        }
+    }
+
+    public StreamingLexer stream(Readable input, boolean skipWhiteSpace) {
+        return new StreamingLexer(automaton, keywords, input, skipWhiteSpace);
+    }
+
+    public TokenAutomaton getAutomaton() {
+        return automaton;
+    }
+
+    public KeywordTable getKeywords() {
+        return keywords;
+    }
+}
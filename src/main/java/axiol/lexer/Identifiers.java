@@ -0,0 +1,155 @@
+package axiol.lexer;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Interner giving every distinct identifier a dense int symbol, starting at 0.
+ * the lexers intern each {@link TokenType#LITERAL} straight out of the source, so later
+ * phases can compare and hash identifiers as ints. lookups of known identifiers are lock
+ * free, only new identifiers take a lock, so it can be shared by lexers on multiple threads.
+ */
+public final class Identifiers {
+
+    public static final int NO_SYMBOL = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final Object LOCK = new Object();
+
+    // slots hold symbol + 1, 0 marks an empty slot
+    private static volatile AtomicIntegerArray slots = new AtomicIntegerArray(INITIAL_CAPACITY * 2);
+    private static volatile String[] names = new String[INITIAL_CAPACITY];
+    private static int count;
+
+    private Identifiers() {
+    }
+
+    public static int intern(String name) {
+        return intern(name, 0, name.length());
+    }
+
+    /**
+     * @return the symbol of the chars [start, end) of the input
+     */
+    public static int intern(CharSequence input, int start, int end) {
+        int hash = hash(input, start, end);
+
+        int symbol = find(slots, input, start, end, hash);
+        if (symbol != NO_SYMBOL)
+            return symbol;
+
+        synchronized (LOCK) {
+            AtomicIntegerArray current = slots;
+            symbol = find(current, input, start, end, hash);
+            if (symbol != NO_SYMBOL)
+                return symbol;
+
+            symbol = count++;
+            if (symbol == names.length) {
+                String[] grown = new String[names.length * 2];
+                System.arraycopy(names, 0, grown, 0, symbol);
+                names = grown;
+            }
+            names[symbol] = input.subSequence(start, end).toString();
+
+            // the slot write publishes the name to lock free readers
+            if (count * 2 > current.length()) {
+                current = rehash(current.length() * 2);
+                insert(current, symbol, hash);
+                slots = current;
+            } else {
+                insert(current, symbol, hash);
+            }
+            return symbol;
+        }
+    }
+
+    public static String name(int symbol) {
+        return names[symbol];
+    }
+
+    public static int count() {
+        synchronized (LOCK) {
+            return count;
+        }
+    }
+
+    /**
+     * Drops every symbol but the first count ones, so a compiler that keeps running does not hold the identifiers
+     * of every source it ever read. the dropped symbols are given to new identifiers again, nothing may use one
+     * of them anymore and nothing may intern meanwhile.
+     */
+    public static void truncate(int count) {
+        synchronized (LOCK) {
+            if (count >= Identifiers.count)
+                return;
+
+            int capacity = INITIAL_CAPACITY;
+            while (capacity < count) {
+                capacity *= 2;
+            }
+            String[] kept = new String[capacity];
+            System.arraycopy(names, 0, kept, 0, count);
+
+            AtomicIntegerArray table = new AtomicIntegerArray(capacity * 2);
+            for (int symbol = 0; symbol < count; symbol++) {
+                insert(table, symbol, hash(kept[symbol], 0, kept[symbol].length()));
+            }
+
+            Identifiers.count = count;
+            names = kept;
+            slots = table;
+        }
+    }
+
+    private static int find(AtomicIntegerArray table, CharSequence input, int start, int end, int hash) {
+        int mask = table.length() - 1;
+
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = table.get(slot);
+            if (entry == 0)
+                return NO_SYMBOL;
+
+            // names is read after the slot, so it already contains the symbol
+            if (matches(names[entry - 1], input, start, end))
+                return entry - 1;
+        }
+    }
+
+    private static void insert(AtomicIntegerArray table, int symbol, int hash) {
+        int mask = table.length() - 1;
+
+        int slot = hash & mask;
+        while (table.get(slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table.set(slot, symbol + 1);
+    }
+
+    private static AtomicIntegerArray rehash(int capacity) {
+        AtomicIntegerArray table = new AtomicIntegerArray(capacity);
+        for (int symbol = 0; symbol < count - 1; symbol++) {
+            insert(table, symbol, hash(names[symbol], 0, names[symbol].length()));
+        }
+        return table;
+    }
+
+    private static boolean matches(String name, CharSequence input, int start, int end) {
+        if (name.length() != end - start)
+            return false;
+
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != input.charAt(start + i))
+                return false;
+        }
+        return true;
+    }
+
+    private static int hash(CharSequence input, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + input.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,90 @@
+package axiol.lexer;
+
+import java.util.Map;
+
+/**
+ * Perfect hash table of the keywords of a lexer.
+ * the multiplier of the hash is searched when the table gets built so that no two
+ * keywords share a slot, a lookup is one hash over the identifier and one compare.
+ */
+public final class KeywordTable {
+
+    private static final int MAX_MULTIPLIER_TRIES = 1 << 16;
+
+    private final String[] keywords;
+    private final TokenType[] types;
+    private final int multiplier;
+    private final int shift;
+
+    private final int minLength;
+    private final int maxLength;
+
+    private KeywordTable(String[] keywords, TokenType[] types, int multiplier, int shift, int minLength, int maxLength) {
+        this.keywords = keywords;
+        this.types = types;
+        this.multiplier = multiplier;
+        this.shift = shift;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+    }
+
+    public static KeywordTable build(Map<String, TokenType> keywords) {
+        int minLength = keywords.keySet().stream().mapToInt(String::length).min().orElse(1);
+        int maxLength = keywords.keySet().stream().mapToInt(String::length).max().orElse(0);
+
+        for (int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(keywords.size() * 2)); bits < 31; bits++) {
+            int shift = 32 - bits;
+
+            for (int multiplier = 1; multiplier < MAX_MULTIPLIER_TRIES; multiplier += 2) {
+                String[] slots = new String[1 << bits];
+                TokenType[] types = new TokenType[1 << bits];
+                boolean collision = false;
+
+                for (Map.Entry<String, TokenType> entry : keywords.entrySet()) {
+                    String keyword = entry.getKey();
+                    int slot = slot(keyword, 0, keyword.length(), multiplier, shift);
+
+                    if (slots[slot] != null) {
+                        collision = true;
+                        break;
+                    }
+                    slots[slot] = keyword;
+                    types[slot] = entry.getValue();
+                }
+
+                if (!collision)
+                    return new KeywordTable(slots, types, multiplier, shift, minLength, maxLength);
+            }
+        }
+
+        throw new IllegalStateException("could not build a perfect hash for %s keywords".formatted(keywords.size()));
+    }
+
+    /**
+     * @return the keyword type of input[start, end) or null if it's no keyword
+     */
+    public TokenType lookup(CharSequence input, int start, int end) {
+        int length = end - start;
+        if (length < minLength || length > maxLength)
+            return null;
+
+        int slot = slot(input, start, end, multiplier, shift);
+        String keyword = keywords[slot];
+        if (keyword == null || keyword.length() != length)
+            return null;
+
+        for (int i = 0; i < length; i++) {
+            if (keyword.charAt(i) != input.charAt(start + i))
+                return null;
+        }
+        return types[slot];
+    }
+
+    private static int slot(CharSequence input, int start, int end, int multiplier, int shift) {
+        int hash = end - start;
+        for (int i = start; i < end; i++) {
+            hash = hash * 31 + input.charAt(i);
+        }
+        return (hash * multiplier) >>> shift;
+    }
+}
@@ -0,0 +1,140 @@
+package axiol.lexer;
+
+/**
+ * Token rules of the axiol language.
+ * the build generates a scanner out of this table, see ScannerGenerator, the regex based
+ * {@link Lexer} built here stays the reference the generated scanner is tested against.
+ */
+public class LanguageRules {
+
+    public static final Lexer LEXER = new Lexer();
+
+    static {
+        // whitespaces
+        LEXER.addRule(TokenType.WHITESPACE, lexerRule -> lexerRule.addRegexes("[ \t\r\n]+"));
+        LEXER.addRule(TokenType.WHITESPACE, lexerRule -> lexerRule.addRegexes("//[^\\r\\n]*"));           // comment
+        LEXER.addRule(TokenType.WHITESPACE, lexerRule -> lexerRule.addMultiline("/*", "*/")); // comment
+
+        // lambda
+        LEXER.addRule(TokenType.LAMBDA, lexerRule ->      lexerRule.addString("->"));
+        LEXER.addRule(TokenType.REV_LAMBDA, lexerRule ->      lexerRule.addString("<-"));
+
+        // math dual char
+        LEXER.addRule(TokenType.EQUAL_EQUAL, lexerRule ->    lexerRule.addString("=="));
+        LEXER.addRule(TokenType.EQUAL_NOT, lexerRule ->      lexerRule.addString("!="));
+        LEXER.addRule(TokenType.LESS_EQUAL, lexerRule ->     lexerRule.addString("<="));
+        LEXER.addRule(TokenType.MORE_EQUAL, lexerRule ->     lexerRule.addString(">="));
+        LEXER.addRule(TokenType.PLUS_EQUAL, lexerRule ->      lexerRule.addString("+="));
+        LEXER.addRule(TokenType.MINUS_EQUAL, lexerRule ->      lexerRule.addString("-="));
+        LEXER.addRule(TokenType.MULTIPLY_EQUAL, lexerRule ->      lexerRule.addString("*="));
+        LEXER.addRule(TokenType.DIVIDE_EQUAL, lexerRule ->   lexerRule.addString("/="));
+        LEXER.addRule(TokenType.XOR_EQUAL, lexerRule ->      lexerRule.addString("^="));
+        LEXER.addRule(TokenType.NOR_EQUAL, lexerRule ->      lexerRule.addString("~="));
+        LEXER.addRule(TokenType.QUESTION_EQUAL, lexerRule -> lexerRule.addString("?="));
+        LEXER.addRule(TokenType.OR_EQUAL, lexerRule ->       lexerRule.addString("|="));
+        LEXER.addRule(TokenType.AND_AND, lexerRule ->        lexerRule.addString("&&"));
+        LEXER.addRule(TokenType.PLUS_PLUS, lexerRule ->      lexerRule.addString("++"));
+        LEXER.addRule(TokenType.MINUS_MINUS, lexerRule ->    lexerRule.addString("--"));
+        LEXER.addRule(TokenType.OR_OR, lexerRule ->          lexerRule.addString("||"));
+        LEXER.addRule(TokenType.SHIFT_LEFT, lexerRule ->     lexerRule.addString("<<"));
+        LEXER.addRule(TokenType.SHIFT_RIGHT, lexerRule ->    lexerRule.addString(">>"));
+        LEXER.addRule(TokenType.FN_ACCESS, lexerRule ->      lexerRule.addString("::"));
+
+        // math basic
+        LEXER.addRule(TokenType.PLUS, lexerRule ->      lexerRule.addString("+"));
+        LEXER.addRule(TokenType.MINUS, lexerRule ->     lexerRule.addString("-"));
+        LEXER.addRule(TokenType.MULTIPLY, lexerRule ->  lexerRule.addString("*"));
+        LEXER.addRule(TokenType.DIVIDE, lexerRule ->    lexerRule.addString("/"));
+        LEXER.addRule(TokenType.AND, lexerRule ->       lexerRule.addString("&"));
+        LEXER.addRule(TokenType.MOD, lexerRule ->       lexerRule.addString("%"));
+        LEXER.addRule(TokenType.OR, lexerRule ->        lexerRule.addString("|"));
+        LEXER.addRule(TokenType.LESS_THAN, lexerRule -> lexerRule.addString("<"));
+        LEXER.addRule(TokenType.MORE_THAN, lexerRule -> lexerRule.addString(">"));
+        LEXER.addRule(TokenType.NOR, lexerRule ->       lexerRule.addString("~"));
+        LEXER.addRule(TokenType.XOR, lexerRule ->       lexerRule.addString("^"));
+        LEXER.addRule(TokenType.EQUAL, lexerRule ->     lexerRule.addString("="));
+        LEXER.addRule(TokenType.QUESTION, lexerRule ->  lexerRule.addString("?"));
+        LEXER.addRule(TokenType.NOT, lexerRule ->       lexerRule.addString("!"));
+
+        // types
+        LEXER.addKeyword(TokenType.BOOLEAN, "true", "false");
+        LEXER.addRule(TokenType.CHAR, lexerRule ->    lexerRule.addMultiline("'", "\\", "'"));
+        LEXER.addRule(TokenType.STRING, lexerRule ->  lexerRule.addMultiline("\"", "\\", "\""));
+
+        // numbers
+        LEXER.addRule(TokenType.SHORT, lexerRule ->       lexerRule.addRegexes("[0-9]{0,5}[sS][uU]?"));
+        LEXER.addRule(TokenType.BYTE, lexerRule ->        lexerRule.addRegexes("[0-9]{0,3}[bB][uU]?"));
+        LEXER.addRule(TokenType.FLOAT, lexerRule ->       lexerRule.addRegexes("[0-9](\\.[0-9]+)?[fF][uU]?"));
+        LEXER.addRule(TokenType.LONG, lexerRule ->        lexerRule.addRegexes("[0-9]{0,20}+[Ll][uU]?"));
+        LEXER.addRule(TokenType.INT, lexerRule ->         lexerRule.addRegexes("[0-9]{0,10}[uU]?"));
+        LEXER.addRule(TokenType.DOUBLE, lexerRule ->      lexerRule.addRegexes("[0-9]{0,20}(\\.[0-9]+)?[dD]?[uU]?"));
+        LEXER.addRule(TokenType.BIG_NUMBER, lexerRule ->  lexerRule.addRegexes("[0-9]{20,32}[uU]?"));
+        LEXER.addRule(TokenType.HEX_NUM, lexerRule ->     lexerRule.addRegexes("0x[0-9a-fA-F]+"));
+        LEXER.addRule(TokenType.BIG_HEX_NUM, lexerRule -> lexerRule.addRegexes("0x[0-9a-fA-F]{0,32}"));
+
+        // brackets
+        LEXER.addRule(TokenType.L_CURLY, lexerRule ->   lexerRule.addString("{"));
+        LEXER.addRule(TokenType.R_CURLY, lexerRule ->   lexerRule.addString("}"));
+        LEXER.addRule(TokenType.L_PAREN, lexerRule ->   lexerRule.addString("("));
+        LEXER.addRule(TokenType.R_PAREN, lexerRule ->   lexerRule.addString(")"));
+        LEXER.addRule(TokenType.L_SQUARE, lexerRule ->  lexerRule.addString("["));
+        LEXER.addRule(TokenType.R_SQUARE, lexerRule ->  lexerRule.addString("]"));
+
+        // dot, coma, others
+        LEXER.addRule(TokenType.SEMICOLON, lexerRule ->  lexerRule.addString(";"));
+        LEXER.addRule(TokenType.VARARGS, lexerRule ->    lexerRule.addString("..."));
+        LEXER.addRule(TokenType.DOT, lexerRule ->        lexerRule.addString("."));
+        LEXER.addRule(TokenType.COMMA, lexerRule ->      lexerRule.addString(","));
+        LEXER.addRule(TokenType.AT, lexerRule ->         lexerRule.addString("@"));
+        LEXER.addRule(TokenType.UNDERSCORE, lexerRule -> lexerRule.addString("_"));
+        LEXER.addRule(TokenType.COLON, lexerRule ->      lexerRule.addString(":"));
+
+        // keywords control-flow
+        LEXER.addKeyword(TokenType.IF,          "if");
+        LEXER.addKeyword(TokenType.ELSE,        "else");
+        LEXER.addKeyword(TokenType.FOR,         "for");
+        LEXER.addKeyword(TokenType.WHILE,       "while");
+        LEXER.addKeyword(TokenType.DO,          "do");
+        LEXER.addKeyword(TokenType.MATCH,       "match");
+        LEXER.addKeyword(TokenType.SWITCH,      "switch");
+        LEXER.addKeyword(TokenType.DEFAULT,     "default");
+        LEXER.addKeyword(TokenType.LOOP,        "loop");
+        LEXER.addKeyword(TokenType.CASE,        "case");
+        LEXER.addKeyword(TokenType.BREAK,       "break");
+        LEXER.addKeyword(TokenType.RETURN,      "return");
+        LEXER.addKeyword(TokenType.YIELD,       "yield");
+        LEXER.addKeyword(TokenType.CONTINUE,    "continue");
+        LEXER.addKeyword(TokenType.UNREACHABLE, "unreachable");
+        LEXER.addKeyword(TokenType.CAST,        "cast");
+        LEXER.addKeyword(TokenType.STACK_ALLOC, "stackAlloc");
+
+        // access modifier
+        LEXER.addKeyword(TokenType.PUBLIC,    "public");
+        LEXER.addKeyword(TokenType.PRIVATE,   "private");
+        LEXER.addKeyword(TokenType.PROTECTED, "protected");
+        LEXER.addKeyword(TokenType.INLINE,    "inline");
+        LEXER.addKeyword(TokenType.CONST,     "const");
+        LEXER.addKeyword(TokenType.EXTERN,    "extern");
+
+        // custom
+        LEXER.addKeyword(TokenType.NATIVE, "native");
+        LEXER.addKeyword(TokenType.ASM,    "asm");
+        LEXER.addKeyword(TokenType.LINKED, "linked");
+        LEXER.addKeyword(TokenType.ISA,    "isa");  // keyword to edits IN-struction-SET
+        LEXER.addKeyword(TokenType.UNSAFE, "unsafe");
+
+        // classes, functions
+        LEXER.addKeyword(TokenType.FUNCTION,  "function");
+        LEXER.addKeyword(TokenType.CLASS,     "class");
+        LEXER.addKeyword(TokenType.PARENT,    "parent");
+        LEXER.addKeyword(TokenType.NAMESPACE, "namespace");
+        LEXER.addKeyword(TokenType.CONSTRUCT, "construct");
+        LEXER.addKeyword(TokenType.STRUCTURE, "structure");
+        LEXER.addKeyword(TokenType.USING,     "using");
+        LEXER.addKeyword(TokenType.OVERLOAD,  "overload");
+        LEXER.addKeyword(TokenType.ENUM,      "enum");
+
+        // literals ! last element or else many things are broken
+        LEXER.addRule(TokenType.LITERAL, lexerRule -> lexerRule.addRegexes("[a-zA-Z_][a-zA-Z0-9_]*"));
+    }
+}
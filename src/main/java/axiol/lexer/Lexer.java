@@ -1,19 +1,26 @@
 package axiol.lexer;
 
+import axiol.lexer.automaton.LexerAutomaton;
 import axiol.parser.util.error.Position;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Regex based reference lexer, the rules and keywords are registered once up front.
+ * after that {@link #tokenize(String, boolean)} keeps all of its state per call,
+ * so a lexer can be used by multiple threads as long as no rules get added anymore.
+ */
 public class Lexer {
-    private final List<LexerRule> tokenRules;
-    private final List<Token> tokens;
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
 
-    private int currentLine;
-    private int currentColumn;
+    private final List<LexerRule> tokenRules;
+    private final Map<String, TokenType> keywords;
 
     public Lexer addRule(TokenType type, Consumer<LexerRule> ruleConsumer) {
         LexerRule rule = tokenRules.stream()
@@ -24,15 +31,27 @@ public class Lexer {
         return this;
     }
 
+    /**
+     * Keywords are no rules of their own, a {@link TokenType#LITERAL} matching
+     * one of them as a whole gets the keyword type instead.
+     */
+    public Lexer addKeyword(TokenType type, String... keywords) {
+        for (String keyword : keywords) {
+            this.keywords.put(keyword, type);
+        }
+        return this;
+    }
+
     public Lexer() {
         this.tokenRules = new ArrayList<>();
-        this.tokens = new ArrayList<>();
+        this.keywords = new LinkedHashMap<>();
     }
 
 
     public List<Token> tokenize(String input, boolean skipWhiteSpace) {
-        currentColumn = 1;
-        currentLine = 1;
+        List<Token> tokens = new ArrayList<>();
+        int currentLine = 1;
+        int currentColumn = 1;
 
         while (!input.isEmpty()) {
             int matchedLength = 0;
@@ -46,7 +65,7 @@ public class Lexer {
                         int length = matcher.end();
                         if (length > matchedLength) {
                             matchedLength = length;
-                            matchedType = TokenType.values()[rule.getHead()];
+                            matchedType = TOKEN_TYPES[rule.getHead()];
                         }
                     }
                 }
@@ -54,8 +73,12 @@ public class Lexer {
 
             if (matchedLength > 0) {
                 String substring = input.substring(0, matchedLength);
-                Token token = new Token(matchedType, substring, new Position(currentLine, currentColumn));
-                tokens.add(token);
+                if (matchedType == TokenType.LITERAL) {
+                    matchedType = keywords.getOrDefault(substring, TokenType.LITERAL);
+                }
+                if (!skipWhiteSpace || matchedType != TokenType.WHITESPACE) {
+                    tokens.add(new Token(matchedType, substring, new Position(currentLine, currentColumn)));
+                }
                 for (char c : substring.toCharArray()) {
                     if (c == '\n') {
                         currentLine++;
@@ -71,11 +94,21 @@ public class Lexer {
             }
         }
 
-        tokens.removeIf(token -> skipWhiteSpace && token.getType().equals(TokenType.WHITESPACE));
         return tokens;
     }
 
-    public void reset() {
-        this.tokens.clear();
+    public List<LexerRule> getTokenRules() {
+        return tokenRules;
+    }
+
+    public Map<String, TokenType> getKeywords() {
+        return keywords;
+    }
+
+    /**
+     * The returned lexer only holds immutable tables and can be shared between threads.
+     */
+    public CompiledLexer compile() {
+        return new CompiledLexer(LexerAutomaton.compile(tokenRules), KeywordTable.build(keywords));
     }
 }
\ No newline at end of file
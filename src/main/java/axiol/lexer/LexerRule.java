@@ -10,22 +10,26 @@ public class LexerRule {
 
     private final int head;
     private final List<Pattern> patterns;
+    private final List<Definition> definitions;
 
     public LexerRule(int head) {
         this.head = head;
 
         this.patterns = new ArrayList<>();
+        this.definitions = new ArrayList<>();
     }
 
     public void addString(String... values) {
         for (String value : values) {
             this.patterns.add(Pattern.compile(this.regexEscape(value)));
+            this.definitions.add(new Definition(DefinitionKind.STRING, value, null, null));
         }
 
     }
     public void addRegexes(String... regexes) {
         for (String regex : regexes) {
             this.patterns.add(Pattern.compile(regex));
+            this.definitions.add(new Definition(DefinitionKind.REGEX, regex, null, null));
         }
 
     }
@@ -51,6 +55,7 @@ public class LexerRule {
                 );
 
         this.patterns.add(Pattern.compile(regex, flags));
+        this.definitions.add(new Definition(DefinitionKind.MULTILINE, open, escape, close));
     }
 
     String regexEscape(String string) {
@@ -79,9 +84,26 @@ public class LexerRule {
         return patterns;
     }
 
+    public List<Definition> getDefinitions() {
+        return definitions;
+    }
+
     public int getHead() {
         return head;
     }
 
+    /**
+     * The raw form of a pattern, kept next to the compiled {@link Pattern} so the
+     * rule set can be compiled into a {@link axiol.lexer.automaton.LexerAutomaton}.
+     * escape and close are only set for {@link DefinitionKind#MULTILINE} definitions.
+     */
+    public record Definition(DefinitionKind kind, String value, String escape, String close) {
+    }
+
+    public enum DefinitionKind {
+        STRING,
+        REGEX,
+        MULTILINE
+    }
 
 }
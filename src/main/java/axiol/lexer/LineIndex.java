@@ -0,0 +1,69 @@
+package axiol.lexer;
+
+import axiol.parser.util.error.Position;
+
+import java.util.Arrays;
+
+/**
+ * Offsets of the line starts of a source, so the line and column of an offset are a binary search
+ * instead of counting the lines in front of it. lines and columns start at 1 like the lexers count them,
+ * only '\n' ends a line and every char is one column.
+ */
+public final class LineIndex {
+
+    private final String content;
+    private final int[] lineStarts;
+
+    private LineIndex(String content, int[] lineStarts) {
+        this.content = content;
+        this.lineStarts = lineStarts;
+    }
+
+    public static LineIndex of(String content) {
+        int[] lineStarts = new int[Math.max(16, content.length() / 32)];
+        int count = 1;
+
+        for (int index = content.indexOf('\n'); index >= 0; index = content.indexOf('\n', index + 1)) {
+            if (count == lineStarts.length) {
+                lineStarts = Arrays.copyOf(lineStarts, count * 2);
+            }
+            lineStarts[count++] = index + 1;
+        }
+        return new LineIndex(content, Arrays.copyOf(lineStarts, count));
+    }
+
+    public int lineOf(int offset) {
+        int index = Arrays.binarySearch(lineStarts, offset);
+        // not a line start, the insertion point is behind the line of the offset
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    public int columnOf(int offset) {
+        return offset - lineStarts[this.lineOf(offset) - 1] + 1;
+    }
+
+    public Position positionOf(int offset) {
+        int line = this.lineOf(offset);
+        return new Position(line, offset - lineStarts[line - 1] + 1);
+    }
+
+    public int getLineCount() {
+        return lineStarts.length;
+    }
+
+    /**
+     * @return the text of the line without its line break
+     */
+    public String lineText(int line) {
+        int start = lineStarts[line - 1];
+        int end = line < lineStarts.length ? lineStarts[line] - 1 : content.length();
+        if (end > start && content.charAt(end - 1) == '\r')
+            end--;
+
+        return content.substring(start, end);
+    }
+
+    public String getContent() {
+        return content;
+    }
+}
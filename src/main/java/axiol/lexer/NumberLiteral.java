@@ -0,0 +1,155 @@
+package axiol.lexer;
+
+/**
+ * Decoder for the text of number tokens, used by the lexers while the chars of a token are at hand,
+ * so the parser gets the value without cutting out and parsing the text again.
+ * integers are decoded into a long, floating point numbers into the bits of a double and
+ * {@link TokenType#BIG_NUMBER}s into a high and low word, the suffix of a token is kept as flags.
+ * an instance holds the last decoded number and is reused for every token of a scan.
+ */
+public final class NumberLiteral {
+
+    public static final int UNSIGNED = 1;
+    // the value holds the bits of a double
+    public static final int FLOATING = 2;
+    // the value is the low word, the high word is stored separately
+    public static final int WIDE = 4;
+    // the text does not fit into its value, like a hex number with more than 16 digits
+    public static final int INVALID = 8;
+
+    // doubles represent every integer up to 2^53 and power of ten up to 10^22 exactly
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private long value;
+    private long high;
+    private int flags;
+
+    public static boolean isNumber(TokenType type) {
+        return switch (type) {
+            case BYTE, SHORT, FLOAT, LONG, INT, DOUBLE, BIG_NUMBER, HEX_NUM -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Decodes the chars [start, end) of the input, which were lexed as a number of the type.
+     */
+    public void decode(TokenType type, CharSequence input, int start, int end) {
+        this.value = 0;
+        this.high = 0;
+        this.flags = 0;
+
+        if (type == TokenType.HEX_NUM) {
+            this.decodeHex(input, start + 2, end);
+            return;
+        }
+
+        char last = input.charAt(end - 1);
+        if (last == 'u' || last == 'U') {
+            flags |= UNSIGNED;
+            end--;
+        }
+        // the type suffix, 's', 'b', 'l', 'f' or 'd'
+        if (end > start && !isDigit(input.charAt(end - 1))) {
+            end--;
+        }
+        if (end == start) {
+            flags |= INVALID;
+            return;
+        }
+
+        switch (type) {
+            case BIG_NUMBER -> this.decodeWide(input, start, end);
+            case FLOAT, DOUBLE -> this.decodeFloating(input, start, end);
+            default -> this.decodeInteger(input, start, end);
+        }
+    }
+
+    private void decodeHex(CharSequence input, int start, int end) {
+        for (int index = start; index < end; index++) {
+            if ((value >>> 60) != 0) {
+                flags |= INVALID;
+                return;
+            }
+            value = (value << 4) | Character.digit(input.charAt(index), 16);
+        }
+    }
+
+    private void decodeInteger(CharSequence input, int start, int end) {
+        for (int index = start; index < end; index++) {
+            int digit = input.charAt(index) - '0';
+            if (Long.compareUnsigned(value, Long.divideUnsigned(-1L - digit, 10)) > 0) {
+                flags |= INVALID;
+                return;
+            }
+            value = value * 10 + digit;
+        }
+    }
+
+    /**
+     * Decodes the digits into 128 bits, wrapping around like the string constructors of I128 and U128.
+     */
+    private void decodeWide(CharSequence input, int start, int end) {
+        flags |= WIDE;
+        for (int index = start; index < end; index++) {
+            int digit = input.charAt(index) - '0';
+
+            // (high, value) * 10 + digit
+            long lowProduct = value * 10;
+            long carry = Math.multiplyHigh(value, 10) + ((value >> 63) & 10);
+            high = high * 10 + carry;
+            value = lowProduct + digit;
+            if (Long.compareUnsigned(value, lowProduct) < 0)
+                high++;
+        }
+    }
+
+    private void decodeFloating(CharSequence input, int start, int end) {
+        flags |= FLOATING;
+
+        long mantissa = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        for (int index = start; index < end; index++) {
+            char c = input.charAt(index);
+            if (c == '.') {
+                fraction = true;
+                continue;
+            }
+
+            mantissa = mantissa * 10 + (c - '0');
+            if (fraction)
+                fractionDigits++;
+            if (mantissa >= MAX_EXACT_MANTISSA || fractionDigits >= POWERS_OF_TEN.length) {
+                // the result of the division would be rounded twice, rare enough to parse the text
+                value = Double.doubleToRawLongBits(Double.parseDouble(input.subSequence(start, end).toString()));
+                return;
+            }
+        }
+
+        value = Double.doubleToRawLongBits(mantissa / POWERS_OF_TEN[fractionDigits]);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @return the decoded long, the bits of the double or the low word of a wide number
+     */
+    public long getValue() {
+        return value;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+}
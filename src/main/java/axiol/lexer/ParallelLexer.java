@@ -0,0 +1,153 @@
+package axiol.lexer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Lexes large sources in chunks on a {@link ForkJoinPool}.
+ * a pre scan splits the source at lines starting with a token, skipping comments, strings
+ * and chars the same way the rules of {@link LanguageRules} do. no token can cross such a
+ * line start, so the chunks are lexed independently and simply appended afterwards.
+ */
+public class ParallelLexer {
+
+    // smaller sources are not worth the tasks
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+    // more chunks than threads, so a slow chunk does not keep the other threads waiting
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final CompiledLexer lexer;
+    private final ForkJoinPool pool;
+
+    public ParallelLexer(CompiledLexer lexer, ForkJoinPool pool) {
+        this.lexer = lexer;
+        this.pool = pool;
+    }
+
+    /**
+     * Produces the same tokens and errors as {@link CompiledLexer#tokenizeBuffer(String, boolean)}.
+     */
+    public TokenBuffer tokenizeBuffer(String input, boolean skipWhiteSpace) {
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, input.length() / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        return this.tokenizeBuffer(input, skipWhiteSpace, chunkSize);
+    }
+
+    TokenBuffer tokenizeBuffer(String input, boolean skipWhiteSpace, int chunkSize) {
+        List<Chunk> chunks = split(input, chunkSize);
+        if (chunks.size() == 1)
+            return lexer.tokenizeBuffer(input, skipWhiteSpace);
+
+        List<Callable<TokenBuffer>> tasks = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            tasks.add(() -> {
+                TokenBuffer tokens = new TokenBuffer(input, (chunk.end() - chunk.start()) / 4);
+                lexer.tokenizeRange(input, chunk.start(), chunk.end(), skipWhiteSpace, tokens);
+                return tokens;
+            });
+        }
+
+        List<TokenBuffer> results = new ArrayList<>();
+        int size = 0;
+        try {
+            // in order, so the first failing chunk reports the error the sequential lexer would
+            for (Future<TokenBuffer> future : pool.invokeAll(tasks)) {
+                TokenBuffer result = future.get();
+                results.add(result);
+                size += result.size();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException exception)
+                throw exception;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while lexing", e);
+        }
+
+        TokenBuffer tokens = new TokenBuffer(input, size + 1);
+        for (TokenBuffer result : results) {
+            tokens.addAll(result);
+        }
+        return tokens;
+    }
+
+    /**
+     * Splits the input at line starts outside of comments, strings and chars whose first char
+     * is no whitespace, so neither a whitespace token crosses the split.
+     * sources with unterminated comments or strings are never split after them.
+     */
+    static List<Chunk> split(String input, int chunkSize) {
+        List<Chunk> chunks = new ArrayList<>();
+        int length = input.length();
+
+        int chunkStart = 0;
+        int index = 0;
+
+        while (index < length) {
+            char c = input.charAt(index);
+
+            if (c == '\n') {
+                index++;
+
+                if (index - chunkStart >= chunkSize && index < length && !isWhitespace(input.charAt(index))) {
+                    chunks.add(new Chunk(chunkStart, index));
+                    chunkStart = index;
+                }
+                continue;
+            }
+
+            int end = switch (c) {
+                case '/' -> index + 1 < length ? switch (input.charAt(index + 1)) {
+                    case '/' -> lineCommentEnd(input, index + 2);
+                    case '*' -> commentEnd(input, index + 2);
+                    default -> index + 1;
+                } : index + 1;
+                case '"', '\'' -> delimitedEnd(input, index + 1, c);
+                default -> index + 1;
+            };
+
+            if (end < 0)
+                break;
+            index = end;
+        }
+
+        chunks.add(new Chunk(chunkStart, length));
+        return chunks;
+    }
+
+    private static int lineCommentEnd(String input, int from) {
+        int index = from;
+        while (index < input.length() && input.charAt(index) != '\n' && input.charAt(index) != '\r') {
+            index++;
+        }
+        return index;
+    }
+
+    private static int commentEnd(String input, int from) {
+        int close = input.indexOf("*/", from);
+        return close < 0 ? -1 : close + 2;
+    }
+
+    private static int delimitedEnd(String input, int from, char close) {
+        for (int index = from; index < input.length(); index++) {
+            char c = input.charAt(index);
+            if (c == '\\') {
+                index++;
+            } else if (c == close) {
+                return index + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    record Chunk(int start, int end) {
+    }
+}
@@ -0,0 +1,210 @@
+package axiol.lexer;
+
+import axiol.lexer.automaton.TokenAutomaton;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+
+/**
+ * Pull based variant of the {@link CompiledLexer}, reading the source in chunks from
+ * a {@link Readable} (Reader, CharBuffer, ...) and lexing one token per {@link #next()}.
+ * only the chars of the token currently scanned are kept in memory.
+ */
+public class StreamingLexer {
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+    private static final int INITIAL_WINDOW_SIZE = 8192;
+
+    private final TokenAutomaton automaton;
+    private final KeywordTable keywords;
+    private final Readable input;
+    private final boolean skipWhiteSpace;
+
+    // chars [position, limit) of the window are read but not lexed yet
+    private char[] window;
+    private CharBuffer windowView;
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+
+    private int currentLine = 1;
+    private int currentColumn = 1;
+
+    private TokenType type;
+    private String text;
+    private int symbol;
+    private final NumberLiteral number = new NumberLiteral();
+    private int numberFlags;
+    private long numberValue;
+    private long numberHigh;
+    private int line;
+    private int column;
+
+    public StreamingLexer(TokenAutomaton automaton, KeywordTable keywords, Readable input, boolean skipWhiteSpace) {
+        this.automaton = automaton;
+        this.keywords = keywords;
+        this.input = input;
+        this.skipWhiteSpace = skipWhiteSpace;
+
+        this.window = new char[INITIAL_WINDOW_SIZE];
+        this.windowView = CharBuffer.wrap(window);
+    }
+
+    /**
+     * Lexes the next token.
+     *
+     * @return false when the input is exhausted
+     */
+    public boolean next() {
+        while (position < limit || fill()) {
+            int state = automaton.getStartState();
+            int matched = -1;
+            int matchedType = TokenAutomaton.NO_TOKEN;
+
+            // scanned is relative to position, refilling the window can move the chars
+            for (int scanned = 0; ; scanned++) {
+                if (position + scanned >= limit && !fill())
+                    break;
+
+                state = automaton.next(state, window[position + scanned]);
+                if (state == TokenAutomaton.DEAD_STATE)
+                    break;
+
+                int acceptType = automaton.acceptType(state);
+                if (acceptType != TokenAutomaton.NO_TOKEN) {
+                    matched = scanned + 1;
+                    matchedType = acceptType;
+                }
+            }
+
+            if (matched < 0) {
+                throw new UnknownTokenException("Unknown token encountered at line %s, column %s, token: %s"
+                        .formatted(currentLine, currentColumn, window[position]));
+            }
+
+            int start = position;
+            int end = position + matched;
+            TokenType matchedToken = TOKEN_TYPES[matchedType];
+
+            boolean skipped = skipWhiteSpace && matchedToken == TokenType.WHITESPACE;
+            if (!skipped) {
+                if (matchedToken == TokenType.LITERAL) {
+                    TokenType keyword = keywords.lookup(windowView, start, end);
+                    if (keyword != null)
+                        matchedToken = keyword;
+                }
+
+                this.type = matchedToken;
+                if (matchedToken == TokenType.LITERAL) {
+                    this.symbol = Identifiers.intern(windowView, start, end);
+                    this.text = Identifiers.name(symbol);
+                } else {
+                    this.symbol = Identifiers.NO_SYMBOL;
+                    this.text = new String(window, start, matched);
+                }
+                if (NumberLiteral.isNumber(matchedToken)) {
+                    number.decode(matchedToken, windowView, start, end);
+                    this.numberFlags = number.getFlags();
+                    this.numberValue = number.getValue();
+                    this.numberHigh = number.getHigh();
+                } else {
+                    this.numberFlags = 0;
+                    this.numberValue = 0;
+                    this.numberHigh = 0;
+                }
+                this.line = currentLine;
+                this.column = currentColumn;
+            }
+
+            for (int index = start; index < end; index++) {
+                if (window[index] == '\n') {
+                    currentLine++;
+                    currentColumn = 1;
+                } else {
+                    currentColumn++;
+                }
+            }
+            position = end;
+
+            if (!skipped)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads more chars into the window, dropping the already lexed chars in front of it.
+     *
+     * @return false if nothing could be read anymore
+     */
+    private boolean fill() {
+        if (endOfInput)
+            return false;
+
+        if (position > 0) {
+            System.arraycopy(window, position, window, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        // keep room for at least a surrogate pair
+        if (window.length - limit < 2) {
+            char[] grown = new char[window.length * 2];
+            System.arraycopy(window, 0, grown, 0, limit);
+            window = grown;
+            windowView = CharBuffer.wrap(window);
+        }
+
+        try {
+            CharBuffer target = CharBuffer.wrap(window, limit, window.length - limit);
+            int read;
+            do {
+                read = input.read(target);
+            } while (read == 0);
+
+            if (read < 0) {
+                endOfInput = true;
+                return false;
+            }
+            limit += read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public TokenType getType() {
+        return type;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * @return the {@link NumberLiteral} flags of the current token, 0 if it is no number
+     */
+    public int getNumberFlags() {
+        return numberFlags;
+    }
+
+    public long getNumber() {
+        return numberValue;
+    }
+
+    public long getNumberHigh() {
+        return numberHigh;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+}
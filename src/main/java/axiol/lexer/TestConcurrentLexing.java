@@ -0,0 +1,102 @@
+package axiol.lexer;
+
+import axiol.Main;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+public class TestConcurrentLexing {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 200;
+
+    public static void main(String[] args) throws Exception {
+        Map<Path, String> sources = readCorpus();
+        Map<Path, String> expected = new LinkedHashMap<>();
+        for (Map.Entry<Path, String> entry : sources.entrySet()) {
+            expected.put(entry.getKey(), render(new LanguageLexer().tokenizeString(entry.getValue())));
+        }
+
+        System.out.println("-".repeat(100));
+        System.out.printf("lexing %s files on %s threads, %s rounds each%n", sources.size(), THREADS, ROUNDS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            long seed = thread;
+            results.add(executor.submit(() -> lexRounds(sources, expected, new Random(seed))));
+        }
+
+        int mismatches = 0;
+        for (Future<Integer> result : results) {
+            mismatches += result.get();
+        }
+        executor.shutdown();
+
+        System.out.printf("%s mismatches%n", mismatches);
+        if (mismatches > 0)
+            throw new IllegalStateException("concurrent lexing produced different tokens");
+    }
+
+    private static int lexRounds(Map<Path, String> sources, Map<Path, String> expected, Random random) {
+        List<Path> files = new ArrayList<>(sources.keySet());
+        int mismatches = 0;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            Collections.shuffle(files, random);
+
+            for (Path file : files) {
+                String content = sources.get(file);
+                // half of the files go through the streaming lexer to also share its tables
+                String tokens = random.nextBoolean()
+                        ? render(new LanguageLexer().tokenizeString(content))
+                        : render(new LanguageLexer().tokenizeStream(new StringReader(content)));
+
+                if (!tokens.equals(expected.get(file))) {
+                    System.out.printf("mismatch in '%s'%n", file);
+                    mismatches++;
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    private static Map<Path, String> readCorpus() throws IOException {
+        Map<Path, String> sources = new LinkedHashMap<>();
+        try (Stream<Path> files = Files.walk(Main.TESTING_FOLDER.toPath())) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".ax")).sorted().toList()) {
+                sources.put(file, Files.readString(file));
+            }
+        }
+        return sources;
+    }
+
+    private static String render(List<Token> tokens) {
+        StringBuilder builder = new StringBuilder();
+        for (Token token : tokens) {
+            builder.append(token).append(' ').append(token.getValue()).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static String render(TokenSequence tokens) {
+        StringBuilder builder = new StringBuilder();
+        for (int index = 0; tokens.hasToken(index); index++) {
+            builder.append(tokens.getToken(index)).append(' ').append(tokens.getText(index)).append('\n');
+            tokens.release(index);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,118 @@
+package axiol.lexer;
+
+import axiol.Main;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class TestGeneratedScanner {
+
+    private static final int RANDOM_INPUTS = 100000;
+    private static final int MAX_FRAGMENTS = 12;
+
+    // inputs the corpus does not contain, unterminated strings and comments, number suffixes, ...
+    private static final String[] EDGE_FRAGMENTS = {
+            "\"", "'", "\\", "/*", "*/", "//", "0x", "1.", "e5", "u", "b", "s", "d", "lu", "\u00e9", "\r", "\t"
+    };
+
+    public static void main(String[] args) throws IOException {
+        CompiledLexer generated = GeneratedScanner.createLexer();
+        Lexer reference = LanguageRules.LEXER;
+
+        testCorpus(generated, reference);
+        testRandom(generated, reference);
+    }
+
+    public static void testCorpus(CompiledLexer generated, Lexer reference) throws IOException {
+        System.out.println("-".repeat(100));
+
+        int mismatches = 0;
+        List<Path> files = corpus();
+        for (Path file : files) {
+            String content = Files.readString(file);
+            for (boolean skipWhiteSpace : new boolean[]{true, false}) {
+                if (!compare(generated, reference, content, skipWhiteSpace)) {
+                    System.out.printf("mismatch in '%s'%n", file);
+                    mismatches++;
+                }
+            }
+        }
+
+        System.out.printf("%s files, %s mismatches%n", files.size(), mismatches);
+        if (mismatches > 0)
+            throw new IllegalStateException("generated scanner differs from the regex lexer");
+    }
+
+    public static void testRandom(CompiledLexer generated, Lexer reference) throws IOException {
+        System.out.println("-".repeat(100));
+
+        // the token texts of the corpus, so the random inputs mostly look like real code
+        Set<String> fragments = new LinkedHashSet<>(List.of(EDGE_FRAGMENTS));
+        for (Path file : corpus()) {
+            for (Token token : reference.tokenize(Files.readString(file), false)) {
+                fragments.add(token.getValue());
+            }
+        }
+        List<String> pool = new ArrayList<>(fragments);
+
+        Random random = new Random(0);
+        int mismatches = 0;
+        for (int input = 0; input < RANDOM_INPUTS; input++) {
+            StringBuilder builder = new StringBuilder();
+            int count = 1 + random.nextInt(MAX_FRAGMENTS);
+            for (int fragment = 0; fragment < count; fragment++) {
+                if (random.nextInt(8) == 0) {
+                    builder.append((char) random.nextInt(128));
+                } else {
+                    builder.append(pool.get(random.nextInt(pool.size())));
+                }
+            }
+
+            if (!compare(generated, reference, builder.toString(), false)) {
+                if (mismatches++ < 10)
+                    System.out.printf("mismatch on '%s'%n", builder);
+            }
+        }
+
+        System.out.printf("%s random inputs, %s mismatches%n", RANDOM_INPUTS, mismatches);
+        if (mismatches > 0)
+            throw new IllegalStateException("generated scanner differs from the regex lexer");
+    }
+
+    private static boolean compare(CompiledLexer generated, Lexer reference, String input, boolean skipWhiteSpace) {
+        return render(() -> generated.tokenize(input, skipWhiteSpace))
+                .equals(render(() -> reference.tokenize(input, skipWhiteSpace)));
+    }
+
+    private static String render(TokenSupplier supplier) {
+        List<Token> tokens;
+        try {
+            tokens = supplier.tokenize();
+        } catch (UnknownTokenException e) {
+            return "error: " + e.getMessage();
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for (Token token : tokens) {
+            builder.append(token).append(' ').append(token.getValue()).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static List<Path> corpus() throws IOException {
+        try (Stream<Path> files = Files.walk(Main.TESTING_FOLDER.toPath())) {
+            return files.filter(path -> path.toString().endsWith(".ax")).sorted().toList();
+        }
+    }
+
+    private interface TokenSupplier {
+        List<Token> tokenize();
+    }
+}
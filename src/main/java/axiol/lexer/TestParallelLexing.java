@@ -0,0 +1,169 @@
+package axiol.lexer;
+
+import axiol.Main;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+public class TestParallelLexing {
+
+    private static final int RANDOM_INPUTS = 5000;
+    private static final int BENCHMARK_SIZE = 16 << 20;
+    private static final int BENCHMARK_RUNS = 7;
+
+    public static void main(String[] args) throws IOException {
+        CompiledLexer lexer = GeneratedScanner.createLexer();
+        List<String> sources = new ArrayList<>();
+        for (Path file : corpus()) {
+            sources.add(Files.readString(file));
+        }
+
+        testCorpus(lexer, sources);
+        testRandom(lexer, sources);
+        benchmark(lexer, sources);
+    }
+
+    public static void testCorpus(CompiledLexer lexer, List<String> sources) {
+        System.out.println("-".repeat(100));
+
+        String input = String.join("\n", sources).repeat(20);
+        ParallelLexer parallelLexer = new ParallelLexer(lexer, ForkJoinPool.commonPool());
+
+        int mismatches = 0;
+        for (int chunkSize : new int[]{1, 64, 1024, 1 << 16}) {
+            for (boolean skipWhiteSpace : new boolean[]{true, false}) {
+                String expected = render(() -> lexer.tokenizeBuffer(input, skipWhiteSpace));
+                String actual = render(() -> parallelLexer.tokenizeBuffer(input, skipWhiteSpace, chunkSize));
+                if (!expected.equals(actual)) {
+                    System.out.printf("mismatch with chunks of %s chars%n", chunkSize);
+                    mismatches++;
+                }
+            }
+        }
+
+        System.out.printf("%s chars of corpus, %s mismatches%n", input.length(), mismatches);
+        if (mismatches > 0)
+            throw new IllegalStateException("parallel lexing differs from sequential lexing");
+    }
+
+    public static void testRandom(CompiledLexer lexer, List<String> sources) {
+        System.out.println("-".repeat(100));
+
+        // tokens of the corpus plus unterminated comments and literals to break the pre scan
+        Set<String> fragments = new LinkedHashSet<>(List.of("\n", "\n", "\n", " \n", "\r\n", "/*", "*/", "//", "\"", "'", "\\"));
+        for (String source : sources) {
+            for (Token token : lexer.tokenize(source, false)) {
+                fragments.add(token.getValue());
+            }
+        }
+        List<String> pool = new ArrayList<>(fragments);
+        ParallelLexer parallelLexer = new ParallelLexer(lexer, ForkJoinPool.commonPool());
+
+        Random random = new Random(0);
+        int mismatches = 0;
+        int errors = 0;
+        for (int input = 0; input < RANDOM_INPUTS; input++) {
+            StringBuilder builder = new StringBuilder();
+            int count = 1 + random.nextInt(200);
+            for (int fragment = 0; fragment < count; fragment++) {
+                builder.append(pool.get(random.nextInt(pool.size())));
+            }
+
+            String content = builder.toString();
+            int chunkSize = 1 + random.nextInt(64);
+            String expected = render(() -> lexer.tokenizeBuffer(content, false));
+            String actual = render(() -> parallelLexer.tokenizeBuffer(content, false, chunkSize));
+
+            if (expected.startsWith("error"))
+                errors++;
+            if (!expected.equals(actual)) {
+                if (mismatches++ < 10)
+                    System.out.printf("mismatch on '%s'%n", content);
+            }
+        }
+
+        System.out.printf("%s random inputs (%s with errors), %s mismatches%n", RANDOM_INPUTS, errors, mismatches);
+        if (mismatches > 0)
+            throw new IllegalStateException("parallel lexing differs from sequential lexing");
+    }
+
+    public static void benchmark(CompiledLexer lexer, List<String> sources) {
+        System.out.println("-".repeat(100));
+
+        String corpus = String.join("\n", sources) + "\n";
+        String input = corpus.repeat(BENCHMARK_SIZE / corpus.length() + 1);
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        double sequential = measure(() -> lexer.tokenizeBuffer(input, true));
+        System.out.printf("lexing %s MB on %s cores%n", input.length() >> 20, cores);
+        System.out.printf("sequential: %.1fms%n", sequential);
+
+        for (int threads = 1; threads <= cores; threads = threads < cores && threads * 2 > cores ? cores : threads * 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            ParallelLexer parallelLexer = new ParallelLexer(lexer, pool);
+
+            double parallel = measure(() -> parallelLexer.tokenizeBuffer(input, true));
+            System.out.printf("%2s threads: %.1fms, %.2fx%n", threads, parallel, sequential / parallel);
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return the median time of the runs after warming up in ms
+     */
+    private static double measure(BufferSupplier supplier) {
+        for (int i = 0; i < BENCHMARK_RUNS; i++) {
+            supplier.tokenize();
+        }
+
+        double[] times = new double[BENCHMARK_RUNS];
+        for (int i = 0; i < BENCHMARK_RUNS; i++) {
+            long start = System.nanoTime();
+            supplier.tokenize();
+            times[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(times);
+        return times[BENCHMARK_RUNS / 2];
+    }
+
+    private static String render(BufferSupplier supplier) {
+        TokenBuffer tokens;
+        try {
+            tokens = supplier.tokenize();
+        } catch (UnknownTokenException e) {
+            return "error: " + e.getMessage();
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for (int index = 0; index < tokens.size(); index++) {
+            builder.append(tokens.getType(index)).append(' ')
+                    .append(tokens.getStart(index)).append(' ')
+                    .append(tokens.getEnd(index)).append(' ')
+                    .append(tokens.getLine(index)).append(' ')
+                    .append(tokens.getColumn(index)).append(' ')
+                    .append(tokens.getNumberFlags(index)).append(' ')
+                    .append(tokens.getNumberHigh(index)).append(' ')
+                    .append(tokens.getNumber(index)).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static List<Path> corpus() throws IOException {
+        try (Stream<Path> files = Files.walk(Main.TESTING_FOLDER.toPath())) {
+            return files.filter(path -> path.toString().endsWith(".ax")).sorted().toList();
+        }
+    }
+
+    private interface BufferSupplier {
+        TokenBuffer tokenize();
+    }
+}
@@ -5,31 +5,64 @@ import axiol.parser.util.error.TokenPosition;
 
 public class Token {
     private final TokenType type;
-    private final String value;
+    private final int symbol;
 
-    private final TokenPosition tokenPosition;
+    // set when the token is a view of a buffer entry
+    private final TokenBuffer buffer;
+    private final int index;
+
+    private String value;
+    private TokenPosition tokenPosition;
 
     public Token(TokenType type, String value, Position position) {
+        this(type, value, type == TokenType.LITERAL ? Identifiers.intern(value) : Identifiers.NO_SYMBOL, position);
+    }
+
+    public Token(TokenType type, String value, int symbol, Position position) {
         this.type = type;
+        this.symbol = symbol;
         this.value = value;
+        this.buffer = null;
+        this.index = -1;
         this.tokenPosition = new TokenPosition(position,
                 new Position(position.line(), position.column() + value.length()));
     }
 
+    Token(TokenBuffer buffer, int index) {
+        this.type = buffer.getType(index);
+        this.symbol = buffer.getSymbol(index);
+        this.buffer = buffer;
+        this.index = index;
+    }
+
     public TokenType getType() {
         return type;
     }
 
+    /**
+     * @return the {@link Identifiers} symbol of a literal or {@link Identifiers#NO_SYMBOL}
+     */
+    public int getSymbol() {
+        return symbol;
+    }
+
     public String getValue() {
+        if (value == null)
+            value = buffer.getText(index);
+
         return value;
     }
 
     public TokenPosition getTokenPosition() {
+        if (tokenPosition == null)
+            tokenPosition = buffer.getPosition(index);
+
         return tokenPosition;
     }
 
     @Override
     public String toString() {
+        TokenPosition tokenPosition = getTokenPosition();
         return "[" + type + " at line " + tokenPosition.getStart().line() + ", column " + tokenPosition.getStart().column() + "]";
     }
-}
\ No newline at end of file
+}
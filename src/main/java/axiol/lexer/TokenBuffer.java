@@ -0,0 +1,290 @@
+package axiol.lexer;
+
+import axiol.parser.util.error.Position;
+import axiol.parser.util.error.TokenPosition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Token storage as parallel int arrays over the lexed source.
+ * the text of a token is only cut out of the source when it is requested,
+ * {@link Token} objects are created on demand as views of a single entry.
+ * tokens only keep their offsets, lines and columns are looked up in a {@link LineIndex} of the source.
+ */
+public class TokenBuffer implements TokenSequence {
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+    static final String EOF_TEXT = "EOF";
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final String content;
+
+    private int[] types;
+    private int[] starts;
+    private int[] ends;
+    private int[] symbols;
+    private long[] numbers;
+    private byte[] numberFlags;
+    private int size;
+
+    // high and low word of the wide numbers, their tokens hold the index of the pair
+    private long[] wideNumbers = new long[0];
+    private int wideCount;
+
+    // built on the first position asked for
+    private LineIndex lineIndex;
+
+    public TokenBuffer(String content) {
+        this(content, INITIAL_CAPACITY);
+    }
+
+    public TokenBuffer(String content, int capacity) {
+        this.content = content;
+
+        capacity = Math.max(capacity, 1);
+        this.types = new int[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        this.symbols = new int[capacity];
+        this.numbers = new long[capacity];
+        this.numberFlags = new byte[capacity];
+    }
+
+    public void add(TokenType type, int start, int end) {
+        this.add(type, start, end, Identifiers.NO_SYMBOL);
+    }
+
+    public void add(TokenType type, int start, int end, int symbol) {
+        if (size == types.length) {
+            this.grow(types.length * 2);
+        }
+
+        types[size] = type.ordinal();
+        starts[size] = start;
+        ends[size] = end;
+        symbols[size] = symbol;
+        numbers[size] = 0;
+        numberFlags[size] = 0;
+        size++;
+    }
+
+    /**
+     * Adds a number token with the value last decoded by the {@link NumberLiteral}.
+     */
+    public void add(TokenType type, int start, int end, NumberLiteral number) {
+        int index = size;
+        this.add(type, start, end, Identifiers.NO_SYMBOL);
+
+        int flags = number.getFlags();
+        numberFlags[index] = (byte) flags;
+        if ((flags & NumberLiteral.WIDE) != 0) {
+            numbers[index] = this.addWide(number.getHigh(), number.getValue());
+        } else {
+            numbers[index] = number.getValue();
+        }
+    }
+
+    private int addWide(long high, long low) {
+        if (wideCount * 2 == wideNumbers.length) {
+            wideNumbers = Arrays.copyOf(wideNumbers, Math.max(8, wideNumbers.length * 2));
+        }
+
+        wideNumbers[wideCount * 2] = high;
+        wideNumbers[wideCount * 2 + 1] = low;
+        return wideCount++;
+    }
+
+    /**
+     * Appends all tokens of a buffer lexed from the same content.
+     */
+    public void addAll(TokenBuffer other) {
+        if (other.content != content)
+            throw new IllegalArgumentException("token buffers were lexed from different sources");
+
+        if (size + other.size > types.length) {
+            this.grow(Math.max(types.length * 2, size + other.size));
+        }
+
+        System.arraycopy(other.types, 0, types, size, other.size);
+        System.arraycopy(other.starts, 0, starts, size, other.size);
+        System.arraycopy(other.ends, 0, ends, size, other.size);
+        System.arraycopy(other.symbols, 0, symbols, size, other.size);
+        System.arraycopy(other.numberFlags, 0, numberFlags, size, other.size);
+        for (int index = 0; index < other.size; index++) {
+            if ((other.numberFlags[index] & NumberLiteral.WIDE) != 0) {
+                int wide = (int) other.numbers[index];
+                numbers[size + index] = this.addWide(other.wideNumbers[wide * 2], other.wideNumbers[wide * 2 + 1]);
+            } else {
+                numbers[size + index] = other.numbers[index];
+            }
+        }
+        size += other.size;
+    }
+
+    private void grow(int capacity) {
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        symbols = Arrays.copyOf(symbols, capacity);
+        numbers = Arrays.copyOf(numbers, capacity);
+        numberFlags = Arrays.copyOf(numberFlags, capacity);
+    }
+
+    public void addEof() {
+        this.add(TokenType.EOF, content.length(), content.length());
+    }
+
+    @Override
+    public boolean hasToken(int index) {
+        return index >= 0 && index < size;
+    }
+
+    @Override
+    public TokenType getType(int index) {
+        return TOKEN_TYPES[this.typeOrdinal(index)];
+    }
+
+    public int typeOrdinal(int index) {
+        checkIndex(index);
+        return types[index];
+    }
+
+    @Override
+    public boolean matches(int index, TokenType type) {
+        return index >= 0 && index < size && types[index] == type.ordinal();
+    }
+
+    @Override
+    public boolean textEquals(int index, String value) {
+        checkIndex(index);
+        if (types[index] == TokenType.EOF.ordinal())
+            return EOF_TEXT.equals(value);
+
+        int length = ends[index] - starts[index];
+        return value.length() == length && content.regionMatches(starts[index], value, 0, length);
+    }
+
+    @Override
+    public String getText(int index) {
+        checkIndex(index);
+        if (types[index] == TokenType.EOF.ordinal())
+            return EOF_TEXT;
+        // identifiers are shared instead of cut out of the source again
+        if (symbols[index] != Identifiers.NO_SYMBOL)
+            return Identifiers.name(symbols[index]);
+
+        return content.substring(starts[index], ends[index]);
+    }
+
+    @Override
+    public int getSymbol(int index) {
+        checkIndex(index);
+        return symbols[index];
+    }
+
+    @Override
+    public int getNumberFlags(int index) {
+        checkIndex(index);
+        return numberFlags[index];
+    }
+
+    @Override
+    public long getNumber(int index) {
+        checkIndex(index);
+        if ((numberFlags[index] & NumberLiteral.WIDE) != 0)
+            return wideNumbers[(int) numbers[index] * 2 + 1];
+
+        return numbers[index];
+    }
+
+    @Override
+    public long getNumberHigh(int index) {
+        checkIndex(index);
+        if ((numberFlags[index] & NumberLiteral.WIDE) != 0)
+            return wideNumbers[(int) numbers[index] * 2];
+
+        return 0;
+    }
+
+    public int getStart(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    public int getEnd(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    /**
+     * @return the line of the token, -1 for the end of file
+     */
+    public int getLine(int index) {
+        checkIndex(index);
+        if (types[index] == TokenType.EOF.ordinal())
+            return -1;
+
+        return this.getLineIndex().lineOf(starts[index]);
+    }
+
+    /**
+     * @return the column of the token, -1 for the end of file
+     */
+    public int getColumn(int index) {
+        checkIndex(index);
+        if (types[index] == TokenType.EOF.ordinal())
+            return -1;
+
+        return this.getLineIndex().columnOf(starts[index]);
+    }
+
+    @Override
+    public TokenPosition getPosition(int index) {
+        checkIndex(index);
+        if (types[index] == TokenType.EOF.ordinal())
+            return new TokenPosition(new Position(-1, -1), new Position(-1, -1 + EOF_TEXT.length()));
+
+        return new TokenPosition(this.getLineIndex(), starts[index], this.textLength(index));
+    }
+
+    public LineIndex getLineIndex() {
+        // racing threads build equal indices, either one is fine
+        if (lineIndex == null) {
+            lineIndex = LineIndex.of(content);
+        }
+        return lineIndex;
+    }
+
+    @Override
+    public Token getToken(int index) {
+        checkIndex(index);
+        return new Token(this, index);
+    }
+
+    public List<Token> toTokens() {
+        List<Token> tokens = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tokens.add(new Token(this, i));
+        }
+        return tokens;
+    }
+
+    int textLength(int index) {
+        return types[index] == TokenType.EOF.ordinal() ? EOF_TEXT.length() : ends[index] - starts[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index %s out of bounds for length %s".formatted(index, size));
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,200 @@
+package axiol.lexer;
+
+import axiol.parser.util.error.Position;
+import axiol.parser.util.error.TokenPosition;
+
+/**
+ * Ring buffer of tokens pulled on demand from a {@link StreamingLexer}.
+ * tokens stay buffered until they get released by the consumer, the ring only
+ * grows if the consumer looks further ahead than the current capacity.
+ */
+public class TokenRing implements TokenSequence {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final StreamingLexer lexer;
+
+    private TokenType[] types;
+    private String[] texts;
+    private int[] lines;
+    private int[] columns;
+    private int[] symbols;
+    private int[] numberFlags;
+    private long[] numbers;
+    private long[] numberHighs;
+    private int mask;
+
+    // tokens [first, count) are buffered
+    private int first;
+    private int count;
+    private int released;
+    private boolean finished;
+
+    public TokenRing(StreamingLexer lexer) {
+        this.lexer = lexer;
+        this.allocate(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public boolean hasToken(int index) {
+        if (index < 0)
+            return false;
+
+        while (index >= count && !finished) {
+            this.pull();
+        }
+        return index < count;
+    }
+
+    @Override
+    public void release(int index) {
+        released = Math.max(released, index);
+    }
+
+    private void pull() {
+        if (count - first == types.length) {
+            if (released > first) {
+                first = Math.min(released, count);
+            } else {
+                this.grow();
+            }
+        }
+
+        int slot = count & mask;
+        if (lexer.next()) {
+            types[slot] = lexer.getType();
+            texts[slot] = lexer.getText();
+            lines[slot] = lexer.getLine();
+            columns[slot] = lexer.getColumn();
+            symbols[slot] = lexer.getSymbol();
+            numberFlags[slot] = lexer.getNumberFlags();
+            numbers[slot] = lexer.getNumber();
+            numberHighs[slot] = lexer.getNumberHigh();
+        } else {
+            types[slot] = TokenType.EOF;
+            texts[slot] = TokenBuffer.EOF_TEXT;
+            lines[slot] = -1;
+            columns[slot] = -1;
+            symbols[slot] = Identifiers.NO_SYMBOL;
+            numberFlags[slot] = 0;
+            numbers[slot] = 0;
+            numberHighs[slot] = 0;
+            finished = true;
+        }
+        count++;
+    }
+
+    private void grow() {
+        TokenType[] oldTypes = types;
+        String[] oldTexts = texts;
+        int[] oldLines = lines;
+        int[] oldColumns = columns;
+        int[] oldSymbols = symbols;
+        int[] oldNumberFlags = numberFlags;
+        long[] oldNumbers = numbers;
+        long[] oldNumberHighs = numberHighs;
+        int oldMask = mask;
+
+        this.allocate(types.length * 2);
+        for (int index = first; index < count; index++) {
+            types[index & mask] = oldTypes[index & oldMask];
+            texts[index & mask] = oldTexts[index & oldMask];
+            lines[index & mask] = oldLines[index & oldMask];
+            columns[index & mask] = oldColumns[index & oldMask];
+            symbols[index & mask] = oldSymbols[index & oldMask];
+            numberFlags[index & mask] = oldNumberFlags[index & oldMask];
+            numbers[index & mask] = oldNumbers[index & oldMask];
+            numberHighs[index & mask] = oldNumberHighs[index & oldMask];
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.types = new TokenType[capacity];
+        this.texts = new String[capacity];
+        this.lines = new int[capacity];
+        this.columns = new int[capacity];
+        this.symbols = new int[capacity];
+        this.numberFlags = new int[capacity];
+        this.numbers = new long[capacity];
+        this.numberHighs = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return the slot of the token, read the arrays only after it as pulling the token may grow them
+     */
+    private int slot(int index) {
+        if (!this.hasToken(index))
+            throw new IndexOutOfBoundsException("Index %s out of bounds for length %s".formatted(index, count));
+        if (index < first)
+            throw new IllegalStateException("token %s was already released from the stream".formatted(index));
+
+        return index & mask;
+    }
+
+    @Override
+    public TokenType getType(int index) {
+        int slot = this.slot(index);
+        return types[slot];
+    }
+
+    @Override
+    public boolean matches(int index, TokenType type) {
+        return this.hasToken(index) && index >= first && types[index & mask] == type;
+    }
+
+    @Override
+    public boolean textEquals(int index, String value) {
+        int slot = this.slot(index);
+        return texts[slot].equals(value);
+    }
+
+    @Override
+    public String getText(int index) {
+        int slot = this.slot(index);
+        return texts[slot];
+    }
+
+    @Override
+    public int getSymbol(int index) {
+        int slot = this.slot(index);
+        return symbols[slot];
+    }
+
+    @Override
+    public int getNumberFlags(int index) {
+        int slot = this.slot(index);
+        return numberFlags[slot];
+    }
+
+    @Override
+    public long getNumber(int index) {
+        int slot = this.slot(index);
+        return numbers[slot];
+    }
+
+    @Override
+    public long getNumberHigh(int index) {
+        int slot = this.slot(index);
+        return numberHighs[slot];
+    }
+
+    @Override
+    public TokenPosition getPosition(int index) {
+        int slot = this.slot(index);
+        int line = lines[slot];
+        int column = columns[slot];
+
+        return new TokenPosition(new Position(line, column), new Position(line, column + texts[slot].length()));
+    }
+
+    @Override
+    public Token getToken(int index) {
+        int slot = this.slot(index);
+        return new Token(types[slot], texts[slot], symbols[slot], new Position(lines[slot], columns[slot]));
+    }
+
+    public int getCapacity() {
+        return types.length;
+    }
+}
@@ -0,0 +1,54 @@
+package axiol.lexer;
+
+import axiol.parser.util.error.TokenPosition;
+
+/**
+ * Index based access to lexed tokens, implemented by the fully lexed
+ * {@link TokenBuffer} and the lazily pulled {@link TokenRing}.
+ */
+public interface TokenSequence {
+
+    /**
+     * @return true if a token exists at the index, streaming implementations lex up to it
+     */
+    boolean hasToken(int index);
+
+    TokenType getType(int index);
+
+    boolean matches(int index, TokenType type);
+
+    boolean textEquals(int index, String value);
+
+    String getText(int index);
+
+    /**
+     * @return the {@link Identifiers} symbol of a literal or {@link Identifiers#NO_SYMBOL}
+     */
+    int getSymbol(int index);
+
+    /**
+     * @return the {@link NumberLiteral} flags of a number token, 0 for any other token
+     */
+    int getNumberFlags(int index);
+
+    /**
+     * @return the value decoded by the {@link NumberLiteral}, the low word of a wide number
+     */
+    long getNumber(int index);
+
+    /**
+     * @return the high word of a wide number, 0 for any other token
+     */
+    long getNumberHigh(int index);
+
+    TokenPosition getPosition(int index);
+
+    Token getToken(int index);
+
+    /**
+     * Tells the sequence that tokens before the index won't be accessed anymore.
+     */
+    default void release(int index) {
+    }
+
+}
@@ -0,0 +1,102 @@
+package axiol.lexer.automaton;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable set of chars stored as sorted, non overlapping [lo, hi] pairs.
+ */
+final class CharSet {
+
+    static final CharSet EMPTY = new CharSet(new int[0]);
+    static final CharSet ALL = new CharSet(new int[]{0, Nfa.MAX_CHAR});
+
+    private final int[] ranges;
+
+    private CharSet(int[] ranges) {
+        this.ranges = ranges;
+    }
+
+    static CharSet of(char c) {
+        return new CharSet(new int[]{c, c});
+    }
+
+    static CharSet range(int lo, int hi) {
+        if (lo > hi) {
+            throw new IllegalArgumentException("illegal char range %s-%s".formatted((char) lo, (char) hi));
+        }
+        return new CharSet(new int[]{lo, hi});
+    }
+
+    static CharSet chars(String chars) {
+        CharSet set = EMPTY;
+        for (int i = 0; i < chars.length(); i++) {
+            set = set.union(of(chars.charAt(i)));
+        }
+        return set;
+    }
+
+    CharSet union(CharSet other) {
+        int[] merged = Arrays.copyOf(this.ranges, this.ranges.length + other.ranges.length);
+        System.arraycopy(other.ranges, 0, merged, this.ranges.length, other.ranges.length);
+
+        int pairs = merged.length / 2;
+        Integer[] order = new Integer[pairs];
+        for (int i = 0; i < pairs; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(merged[a * 2], merged[b * 2]));
+
+        List<int[]> result = new ArrayList<>();
+        for (int index : order) {
+            int lo = merged[index * 2];
+            int hi = merged[index * 2 + 1];
+
+            int[] last = result.isEmpty() ? null : result.get(result.size() - 1);
+            if (last != null && lo <= last[1] + 1) {
+                last[1] = Math.max(last[1], hi);
+            } else {
+                result.add(new int[]{lo, hi});
+            }
+        }
+
+        int[] flat = new int[result.size() * 2];
+        for (int i = 0; i < result.size(); i++) {
+            flat[i * 2] = result.get(i)[0];
+            flat[i * 2 + 1] = result.get(i)[1];
+        }
+        return new CharSet(flat);
+    }
+
+    CharSet complement() {
+        List<Integer> result = new ArrayList<>();
+        int next = 0;
+
+        for (int i = 0; i < this.ranges.length; i += 2) {
+            if (this.ranges[i] > next) {
+                result.add(next);
+                result.add(this.ranges[i] - 1);
+            }
+            next = this.ranges[i + 1] + 1;
+        }
+        if (next <= Nfa.MAX_CHAR) {
+            result.add(next);
+            result.add(Nfa.MAX_CHAR);
+        }
+
+        return new CharSet(result.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    boolean contains(char c) {
+        for (int i = 0; i < this.ranges.length; i += 2) {
+            if (c >= this.ranges[i] && c <= this.ranges[i + 1])
+                return true;
+        }
+        return false;
+    }
+
+    int[] ranges() {
+        return this.ranges;
+    }
+}
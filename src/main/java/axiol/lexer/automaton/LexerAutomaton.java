@@ -0,0 +1,214 @@
+package axiol.lexer.automaton;
+
+import axiol.lexer.LexerRule;
+
+import java.util.*;
+
+/**
+ * Deterministic automaton combining every {@link LexerRule} of a lexer.
+ * each state knows the token type it accepts, when several rules accept the same
+ * input the rule registered first wins just like in the regex based lexer.
+ */
+public final class LexerAutomaton implements TokenAutomaton {
+
+    private static final int ASCII_SIZE = 128;
+
+    private final int startState;
+    private final int classCount;
+    // first char of every char class, sorted
+    private final int[] classStarts;
+    private final int[] asciiClasses;
+    private final int[] transitions;
+    private final int[] acceptTypes;
+
+    private LexerAutomaton(int startState, int classCount, int[] classStarts,
+                           int[] transitions, int[] acceptTypes) {
+        this.startState = startState;
+        this.classCount = classCount;
+        this.classStarts = classStarts;
+        this.transitions = transitions;
+        this.acceptTypes = acceptTypes;
+
+        this.asciiClasses = new int[ASCII_SIZE];
+        for (int c = 0; c < ASCII_SIZE; c++) {
+            this.asciiClasses[c] = this.findClass(c);
+        }
+    }
+
+    public static LexerAutomaton compile(List<LexerRule> rules) {
+        Nfa nfa = new Nfa();
+        int start = nfa.newState();
+
+        // rules can be listed multiple times, the first occurrence defines the priority
+        Set<LexerRule> compiled = Collections.newSetFromMap(new IdentityHashMap<>());
+        int priority = 0;
+        for (LexerRule rule : rules) {
+            if (!compiled.add(rule))
+                continue;
+
+            for (LexerRule.Definition definition : rule.getDefinitions()) {
+                Nfa.Fragment fragment = switch (definition.kind()) {
+                    case STRING -> nfa.literal(definition.value());
+                    case REGEX -> RegexCompiler.compile(nfa, definition.value(), false);
+                    case MULTILINE -> nfa.delimited(definition.value(), definition.escape(), definition.close());
+                };
+
+                nfa.addEpsilon(start, fragment.start());
+                nfa.setAccepting(fragment.end(), rule.getHead(), priority);
+            }
+            priority++;
+        }
+
+        return determinize(nfa, start);
+    }
+
+    private static LexerAutomaton determinize(Nfa nfa, int nfaStart) {
+        int[] classStarts = collectClassStarts(nfa);
+        int classCount = classStarts.length;
+
+        List<BitSet> dfaStates = new ArrayList<>();
+        Map<BitSet, Integer> dfaIndices = new HashMap<>();
+        List<int[]> rows = new ArrayList<>();
+        List<Integer> accepting = new ArrayList<>();
+
+        BitSet start = closure(nfa, single(nfaStart));
+        dfaStates.add(start);
+        dfaIndices.put(start, 0);
+
+        for (int current = 0; current < dfaStates.size(); current++) {
+            BitSet states = dfaStates.get(current);
+            BitSet[] moves = new BitSet[classCount];
+
+            int acceptType = NO_TOKEN;
+            int acceptPriority = Integer.MAX_VALUE;
+
+            for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+                if (nfa.acceptType(state) >= 0 && nfa.acceptPriority(state) < acceptPriority) {
+                    acceptType = nfa.acceptType(state);
+                    acceptPriority = nfa.acceptPriority(state);
+                }
+
+                for (Nfa.Edge edge : nfa.edges(state)) {
+                    int from = classOf(classStarts, edge.lo());
+                    int to = classOf(classStarts, edge.hi());
+
+                    for (int charClass = from; charClass <= to; charClass++) {
+                        if (moves[charClass] == null)
+                            moves[charClass] = new BitSet();
+                        moves[charClass].set(edge.target());
+                    }
+                }
+            }
+
+            int[] row = new int[classCount];
+            for (int charClass = 0; charClass < classCount; charClass++) {
+                if (moves[charClass] == null) {
+                    row[charClass] = DEAD_STATE;
+                    continue;
+                }
+
+                BitSet target = closure(nfa, moves[charClass]);
+                Integer index = dfaIndices.get(target);
+                if (index == null) {
+                    index = dfaStates.size();
+                    dfaStates.add(target);
+                    dfaIndices.put(target, index);
+                }
+                row[charClass] = index;
+            }
+
+            rows.add(row);
+            accepting.add(acceptType);
+        }
+
+        int[] transitions = new int[rows.size() * classCount];
+        for (int i = 0; i < rows.size(); i++) {
+            System.arraycopy(rows.get(i), 0, transitions, i * classCount, classCount);
+        }
+
+        return new LexerAutomaton(0, classCount, classStarts, transitions,
+                accepting.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private static int[] collectClassStarts(Nfa nfa) {
+        TreeSet<Integer> starts = new TreeSet<>();
+        starts.add(0);
+
+        for (int state = 0; state < nfa.size(); state++) {
+            for (Nfa.Edge edge : nfa.edges(state)) {
+                starts.add(edge.lo());
+                if (edge.hi() < Nfa.MAX_CHAR)
+                    starts.add(edge.hi() + 1);
+            }
+        }
+
+        return starts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static BitSet closure(Nfa nfa, BitSet states) {
+        BitSet result = (BitSet) states.clone();
+        Deque<Integer> pending = new ArrayDeque<>();
+        states.stream().forEach(pending::push);
+
+        while (!pending.isEmpty()) {
+            for (int next : nfa.epsilons(pending.pop())) {
+                if (!result.get(next)) {
+                    result.set(next);
+                    pending.push(next);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static BitSet single(int state) {
+        BitSet set = new BitSet();
+        set.set(state);
+        return set;
+    }
+
+    private static int classOf(int[] classStarts, int c) {
+        int index = Arrays.binarySearch(classStarts, c);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private int findClass(int c) {
+        return classOf(this.classStarts, c);
+    }
+
+    @Override
+    public int next(int state, char c) {
+        int charClass = c < ASCII_SIZE ? this.asciiClasses[c] : this.findClass(c);
+        return this.transitions[state * this.classCount + charClass];
+    }
+
+    @Override
+    public int acceptType(int state) {
+        return this.acceptTypes[state];
+    }
+
+    @Override
+    public int getStartState() {
+        return startState;
+    }
+
+    public int getStateCount() {
+        return acceptTypes.length;
+    }
+
+    int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * @return the first char of the char class
+     */
+    int getClassStart(int charClass) {
+        return classStarts[charClass];
+    }
+
+    int transition(int state, int charClass) {
+        return this.transitions[state * this.classCount + charClass];
+    }
+}
@@ -0,0 +1,160 @@
+package axiol.lexer.automaton;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Thompson style nondeterministic automaton used as the intermediate form
+ * of the lexer rules before they get turned into a {@link LexerAutomaton}.
+ */
+final class Nfa {
+
+    static final int MAX_CHAR = Character.MAX_VALUE;
+
+    private final List<State> states = new ArrayList<>();
+
+    int newState() {
+        this.states.add(new State());
+        return this.states.size() - 1;
+    }
+
+    void addEdge(int from, int lo, int hi, int to) {
+        this.states.get(from).edges.add(new Edge(lo, hi, to));
+    }
+
+    void addEdges(int from, CharSet charSet, int to) {
+        int[] ranges = charSet.ranges();
+        for (int i = 0; i < ranges.length; i += 2) {
+            this.addEdge(from, ranges[i], ranges[i + 1], to);
+        }
+    }
+
+    void addEpsilon(int from, int to) {
+        this.states.get(from).epsilons.add(to);
+    }
+
+    void setAccepting(int state, int type, int priority) {
+        State current = this.states.get(state);
+
+        if (current.acceptType < 0 || priority < current.acceptPriority) {
+            current.acceptType = type;
+            current.acceptPriority = priority;
+        }
+    }
+
+    Fragment literal(String value) {
+        int start = this.newState();
+        int current = start;
+
+        for (int i = 0; i < value.length(); i++) {
+            int next = this.newState();
+            this.addEdge(current, value.charAt(i), value.charAt(i), next);
+            current = next;
+        }
+
+        return new Fragment(start, current);
+    }
+
+    /**
+     * Builds open (body) close where the body ends at the first close that is not preceded by
+     * the escape sequence, this equals the reluctant / escaped patterns built by
+     * {@link axiol.lexer.LexerRule#addMultiline(String, String, String)}.
+     */
+    Fragment delimited(String open, String escape, String close) {
+        if (close.isEmpty()) {
+            throw new IllegalArgumentException("multiline rule '%s' has no closing sequence".formatted(open));
+        }
+
+        Fragment opening = this.literal(open);
+        int end = this.newState();
+
+        if (escape.isEmpty()) {
+            // state i = the first i chars of close have been read, reading all of them ends the match
+            int[] bodyStates = new int[close.length()];
+            bodyStates[0] = opening.end();
+            for (int i = 1; i < bodyStates.length; i++) {
+                bodyStates[i] = this.newState();
+            }
+
+            for (int matched = 0; matched < close.length(); matched++) {
+                CharSet handled = CharSet.EMPTY;
+
+                for (int i = 0; i < close.length(); i++) {
+                    char c = close.charAt(i);
+                    if (handled.contains(c))
+                        continue;
+                    handled = handled.union(CharSet.of(c));
+
+                    int next = nextMatched(close, matched, c);
+                    this.addEdge(bodyStates[matched], c, c, next == close.length() ? end : bodyStates[next]);
+                }
+
+                this.addEdges(bodyStates[matched], handled.complement(), bodyStates[0]);
+            }
+
+            return new Fragment(opening.start(), end);
+        }
+
+        if (escape.length() != 1 || close.length() != 1 || escape.equals(close)) {
+            throw new IllegalArgumentException("escaped multiline rules only support single distinct characters, got '%s' and '%s'"
+                    .formatted(escape, close));
+        }
+
+        char escapeChar = escape.charAt(0);
+        char closeChar = close.charAt(0);
+
+        int body = opening.end();
+        int escaped = this.newState();
+
+        this.addEdge(body, escapeChar, escapeChar, escaped);
+        this.addEdge(body, closeChar, closeChar, end);
+        this.addEdges(body, CharSet.of(escapeChar).union(CharSet.of(closeChar)).complement(), body);
+        this.addEdge(escaped, 0, MAX_CHAR, body);
+
+        return new Fragment(opening.start(), end);
+    }
+
+    private static int nextMatched(String close, int matched, char c) {
+        String read = close.substring(0, matched) + c;
+
+        for (int length = Math.min(read.length(), close.length()); length > 0; length--) {
+            if (read.endsWith(close.substring(0, length)))
+                return length;
+        }
+        return 0;
+    }
+
+    int size() {
+        return this.states.size();
+    }
+
+    List<Edge> edges(int state) {
+        return this.states.get(state).edges;
+    }
+
+    List<Integer> epsilons(int state) {
+        return this.states.get(state).epsilons;
+    }
+
+    int acceptType(int state) {
+        return this.states.get(state).acceptType;
+    }
+
+    int acceptPriority(int state) {
+        return this.states.get(state).acceptPriority;
+    }
+
+    record Edge(int lo, int hi, int target) {
+    }
+
+    record Fragment(int start, int end) {
+    }
+
+    private static final class State {
+        private final List<Edge> edges = new ArrayList<>();
+        private final List<Integer> epsilons = new ArrayList<>();
+
+        private int acceptType = -1;
+        private int acceptPriority = Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,348 @@
+package axiol.lexer.automaton;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates the regex subset used by the lexer rules into {@link Nfa} fragments.
+ * supported: literals, escapes, classes ([a-z], [^...], \d \w \s), '.', groups,
+ * alternations and the quantifiers * + ? {n} {n,} {n,m}.
+ */
+final class RegexCompiler {
+
+    private static final CharSet LINE_TERMINATORS = CharSet.chars("\n\r\u0085")
+            .union(CharSet.range(0x2028, 0x2029));
+    private static final CharSet DIGITS = CharSet.range('0', '9');
+    private static final CharSet WORD = CharSet.range('a', 'z').union(CharSet.range('A', 'Z'))
+            .union(DIGITS).union(CharSet.of('_'));
+    private static final CharSet SPACES = CharSet.chars(" \t\n\u000B\f\r");
+
+    private final String regex;
+    private final boolean dotAll;
+    private int index;
+
+    private RegexCompiler(String regex, boolean dotAll) {
+        this.regex = regex;
+        this.dotAll = dotAll;
+    }
+
+    static Nfa.Fragment compile(Nfa nfa, String regex, boolean dotAll) {
+        RegexCompiler compiler = new RegexCompiler(regex, dotAll);
+        Node node = compiler.parseAlternation();
+
+        if (compiler.index != regex.length()) {
+            throw compiler.error("unexpected '%s'".formatted(regex.charAt(compiler.index)));
+        }
+        return node.build(nfa);
+    }
+
+    private Node parseAlternation() {
+        List<Node> options = new ArrayList<>();
+        options.add(this.parseConcat());
+
+        while (this.peek('|')) {
+            this.index++;
+            options.add(this.parseConcat());
+        }
+
+        return options.size() == 1 ? options.get(0) : new Alternation(options);
+    }
+
+    private Node parseConcat() {
+        List<Node> elements = new ArrayList<>();
+
+        while (this.index < this.regex.length() && !this.peek('|') && !this.peek(')')) {
+            elements.add(this.parseRepeat());
+        }
+
+        return new Concat(elements);
+    }
+
+    private Node parseRepeat() {
+        Node atom = this.parseAtom();
+
+        while (this.index < this.regex.length()) {
+            char c = this.regex.charAt(this.index);
+            int min, max;
+
+            if (c == '*') {
+                min = 0;
+                max = -1;
+                this.index++;
+            } else if (c == '+') {
+                min = 1;
+                max = -1;
+                this.index++;
+            } else if (c == '?') {
+                min = 0;
+                max = 1;
+                this.index++;
+            } else if (c == '{') {
+                this.index++;
+                min = this.parseNumber();
+                max = min;
+                if (this.peek(',')) {
+                    this.index++;
+                    max = this.peek('}') ? -1 : this.parseNumber();
+                }
+                this.expect('}');
+            } else {
+                break;
+            }
+
+            if (this.peek('?')) {
+                throw this.error("reluctant quantifiers can't be expressed as longest match");
+            }
+            // possessive quantifiers only refuse to backtrack, the rule table uses them where
+            // the following element can't match the repeated one so they behave like greedy ones
+            if (this.peek('+')) {
+                this.index++;
+            }
+
+            atom = new Repeat(atom, min, max);
+        }
+
+        return atom;
+    }
+
+    private Node parseAtom() {
+        char c = this.regex.charAt(this.index++);
+
+        return switch (c) {
+            case '(' -> {
+                if (this.peek('?')) {
+                    this.index++;
+                    this.expect(':');
+                }
+                Node group = this.parseAlternation();
+                this.expect(')');
+                yield group;
+            }
+            case '[' -> new Chars(this.parseClass());
+            case '.' -> new Chars(this.dotAll ? CharSet.ALL : LINE_TERMINATORS.complement());
+            case '\\' -> new Chars(this.parseEscape());
+            case '^', '$' -> throw this.error("anchors are not supported");
+            case '*', '+', '?', '{' -> throw this.error("dangling quantifier '%s'".formatted(c));
+            default -> new Chars(CharSet.of(c));
+        };
+    }
+
+    private CharSet parseClass() {
+        boolean negated = false;
+        if (this.peek('^')) {
+            negated = true;
+            this.index++;
+        }
+
+        CharSet set = CharSet.EMPTY;
+        boolean first = true;
+
+        while (first || !this.peek(']')) {
+            if (this.index >= this.regex.length()) {
+                throw this.error("unclosed character class");
+            }
+            first = false;
+
+            CharSet element;
+            char c = this.regex.charAt(this.index++);
+            if (c == '\\') {
+                element = this.parseEscape();
+            } else if (c == '[' || (c == '&' && this.peek('&'))) {
+                throw this.error("nested classes are not supported");
+            } else {
+                element = CharSet.of(c);
+            }
+
+            boolean single = element.ranges().length == 2 && element.ranges()[0] == element.ranges()[1];
+            if (single && this.peek('-') && this.index + 1 < this.regex.length()
+                    && this.regex.charAt(this.index + 1) != ']') {
+                this.index++;
+
+                char end = this.regex.charAt(this.index++);
+                CharSet upper = end == '\\' ? this.parseEscape() : CharSet.of(end);
+                if (upper.ranges().length != 2 || upper.ranges()[0] != upper.ranges()[1]) {
+                    throw this.error("illegal range end");
+                }
+                element = CharSet.range(element.ranges()[0], upper.ranges()[0]);
+            }
+
+            set = set.union(element);
+        }
+        this.expect(']');
+
+        return negated ? set.complement() : set;
+    }
+
+    private CharSet parseEscape() {
+        if (this.index >= this.regex.length()) {
+            throw this.error("trailing backslash");
+        }
+        char c = this.regex.charAt(this.index++);
+
+        return switch (c) {
+            case 't' -> CharSet.of('\t');
+            case 'n' -> CharSet.of('\n');
+            case 'r' -> CharSet.of('\r');
+            case 'f' -> CharSet.of('\f');
+            case 'a' -> CharSet.of('\u0007');
+            case 'e' -> CharSet.of('\u001B');
+            case 'd' -> DIGITS;
+            case 'D' -> DIGITS.complement();
+            case 'w' -> WORD;
+            case 'W' -> WORD.complement();
+            case 's' -> SPACES;
+            case 'S' -> SPACES.complement();
+            case 'x' -> CharSet.of((char) this.parseHex(2));
+            case 'u' -> CharSet.of((char) this.parseHex(4));
+            default -> {
+                if (Character.isLetterOrDigit(c)) {
+                    throw this.error("unsupported escape '\\%s'".formatted(c));
+                }
+                yield CharSet.of(c);
+            }
+        };
+    }
+
+    private int parseHex(int digits) {
+        if (this.index + digits > this.regex.length()) {
+            throw this.error("incomplete hex escape");
+        }
+        int value = Integer.parseInt(this.regex.substring(this.index, this.index + digits), 16);
+        this.index += digits;
+        return value;
+    }
+
+    private int parseNumber() {
+        int start = this.index;
+        while (this.index < this.regex.length() && Character.isDigit(this.regex.charAt(this.index))) {
+            this.index++;
+        }
+        if (start == this.index) {
+            throw this.error("expected number");
+        }
+        return Integer.parseInt(this.regex.substring(start, this.index));
+    }
+
+    private boolean peek(char c) {
+        return this.index < this.regex.length() && this.regex.charAt(this.index) == c;
+    }
+
+    private void expect(char c) {
+        if (!this.peek(c)) {
+            throw this.error("expected '%s'".formatted(c));
+        }
+        this.index++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("can't compile lexer regex '%s' at %s: %s"
+                .formatted(this.regex, this.index, message));
+    }
+
+    private abstract static class Node {
+        abstract Nfa.Fragment build(Nfa nfa);
+    }
+
+    private static final class Chars extends Node {
+        private final CharSet set;
+
+        Chars(CharSet set) {
+            this.set = set;
+        }
+
+        @Override
+        Nfa.Fragment build(Nfa nfa) {
+            int start = nfa.newState();
+            int end = nfa.newState();
+            nfa.addEdges(start, this.set, end);
+            return new Nfa.Fragment(start, end);
+        }
+    }
+
+    private static final class Concat extends Node {
+        private final List<Node> elements;
+
+        Concat(List<Node> elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        Nfa.Fragment build(Nfa nfa) {
+            int start = nfa.newState();
+            int current = start;
+
+            for (Node element : this.elements) {
+                Nfa.Fragment fragment = element.build(nfa);
+                nfa.addEpsilon(current, fragment.start());
+                current = fragment.end();
+            }
+            return new Nfa.Fragment(start, current);
+        }
+    }
+
+    private static final class Alternation extends Node {
+        private final List<Node> options;
+
+        Alternation(List<Node> options) {
+            this.options = options;
+        }
+
+        @Override
+        Nfa.Fragment build(Nfa nfa) {
+            int start = nfa.newState();
+            int end = nfa.newState();
+
+            for (Node option : this.options) {
+                Nfa.Fragment fragment = option.build(nfa);
+                nfa.addEpsilon(start, fragment.start());
+                nfa.addEpsilon(fragment.end(), end);
+            }
+            return new Nfa.Fragment(start, end);
+        }
+    }
+
+    private static final class Repeat extends Node {
+        private final Node node;
+        private final int min, max;
+
+        Repeat(Node node, int min, int max) {
+            this.node = node;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        Nfa.Fragment build(Nfa nfa) {
+            int start = nfa.newState();
+            int current = start;
+
+            for (int i = 0; i < this.min; i++) {
+                Nfa.Fragment fragment = this.node.build(nfa);
+                nfa.addEpsilon(current, fragment.start());
+                current = fragment.end();
+            }
+
+            if (this.max < 0) {
+                Nfa.Fragment fragment = this.node.build(nfa);
+                int end = nfa.newState();
+
+                nfa.addEpsilon(current, fragment.start());
+                nfa.addEpsilon(current, end);
+                nfa.addEpsilon(fragment.end(), fragment.start());
+                nfa.addEpsilon(fragment.end(), end);
+                return new Nfa.Fragment(start, end);
+            }
+
+            int end = nfa.newState();
+            for (int i = this.min; i < this.max; i++) {
+                Nfa.Fragment fragment = this.node.build(nfa);
+                nfa.addEpsilon(current, end);
+                nfa.addEpsilon(current, fragment.start());
+                current = fragment.end();
+            }
+            nfa.addEpsilon(current, end);
+
+            return new Nfa.Fragment(start, end);
+        }
+    }
+}
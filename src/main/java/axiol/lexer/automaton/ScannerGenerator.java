@@ -0,0 +1,219 @@
+package axiol.lexer.automaton;
+
+import axiol.lexer.LanguageRules;
+import axiol.lexer.Lexer;
+import axiol.lexer.TokenType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the java source of a scanner out of the rules of a {@link Lexer}.
+ * the rules get compiled to a {@link LexerAutomaton} whose transitions are written out
+ * as one switch over the char per state, so the generated class needs no tables
+ * or regex at runtime. it is run by the build with the source output folder as argument.
+ */
+public class ScannerGenerator {
+
+    private static final String PACKAGE = "axiol.lexer";
+    private static final String CLASS_NAME = "GeneratedScanner";
+
+    private static final int ASCII_SIZE = 128;
+    // longer ascii ranges are checked with a compare instead of listing every char
+    private static final int MAX_CASE_RANGE = 32;
+
+    private final StringBuilder builder = new StringBuilder();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1)
+            throw new IllegalArgumentException("expected the source output folder as only argument");
+
+        Path folder = Path.of(args[0], PACKAGE.split("\\."));
+        Files.createDirectories(folder);
+        Files.writeString(folder.resolve(CLASS_NAME + ".java"), new ScannerGenerator().generate(LanguageRules.LEXER));
+    }
+
+    public String generate(Lexer lexer) {
+        LexerAutomaton automaton = LexerAutomaton.compile(lexer.getTokenRules());
+
+        line(0, "// generated by %s out of %s, do not edit".formatted(ScannerGenerator.class.getName(), LanguageRules.class.getName()));
+        line(0, "package %s;".formatted(PACKAGE));
+        line(0, "");
+        line(0, "import %s;".formatted(TokenAutomaton.class.getName()));
+        line(0, "");
+        line(0, "import java.util.LinkedHashMap;");
+        line(0, "import java.util.Map;");
+        line(0, "");
+        line(0, "public final class %s implements TokenAutomaton {".formatted(CLASS_NAME));
+        line(0, "");
+        line(1, "private static final %s INSTANCE = new %s();".formatted(CLASS_NAME, CLASS_NAME));
+        line(0, "");
+        this.generateAcceptTypes(automaton);
+        line(0, "");
+        this.generateFactory(lexer.getKeywords());
+        line(0, "");
+        line(1, "@Override");
+        line(1, "public int getStartState() {");
+        line(2, "return %s;".formatted(automaton.getStartState()));
+        line(1, "}");
+        line(0, "");
+        line(1, "@Override");
+        line(1, "public int acceptType(int state) {");
+        line(2, "return ACCEPT_TYPES[state];");
+        line(1, "}");
+        line(0, "");
+        line(1, "@Override");
+        line(1, "public int next(int state, char c) {");
+        line(2, "return switch (state) {");
+        for (int state = 0; state < automaton.getStateCount(); state++) {
+            line(3, "case %s -> state%s(c);".formatted(state, state));
+        }
+        line(3, "default -> DEAD_STATE;");
+        line(2, "};");
+        line(1, "}");
+
+        for (int state = 0; state < automaton.getStateCount(); state++) {
+            line(0, "");
+            this.generateState(state, transitionRanges(automaton, state));
+        }
+        line(0, "}");
+
+        return builder.toString();
+    }
+
+    private void generateAcceptTypes(LexerAutomaton automaton) {
+        TokenType[] tokenTypes = TokenType.values();
+
+        line(1, "private static final int[] ACCEPT_TYPES = {");
+        for (int state = 0; state < automaton.getStateCount(); state++) {
+            int acceptType = automaton.acceptType(state);
+            line(2, (acceptType == TokenAutomaton.NO_TOKEN ? "NO_TOKEN" : "TokenType.%s.ordinal()"
+                    .formatted(tokenTypes[acceptType].name())) + ",");
+        }
+        line(1, "};");
+    }
+
+    private void generateFactory(Map<String, TokenType> keywords) {
+        line(1, "public static CompiledLexer createLexer() {");
+        line(2, "Map<String, TokenType> keywords = new LinkedHashMap<>();");
+        for (Map.Entry<String, TokenType> entry : keywords.entrySet()) {
+            line(2, "keywords.put(%s, TokenType.%s);".formatted(stringLiteral(entry.getKey()), entry.getValue().name()));
+        }
+        line(0, "");
+        line(2, "return new CompiledLexer(INSTANCE, KeywordTable.build(keywords));");
+        line(1, "}");
+    }
+
+    private void generateState(int state, List<Range> ranges) {
+        List<Range> cases = new ArrayList<>();
+        List<Range> compares = new ArrayList<>();
+        for (Range range : ranges) {
+            boolean listed = range.hi() < ASCII_SIZE && range.hi() - range.lo() < MAX_CASE_RANGE;
+            (listed ? cases : compares).add(range);
+        }
+
+        line(1, "private static int state%s(char c) {".formatted(state));
+        if (cases.isEmpty()) {
+            this.generateCompares(2, "return", compares);
+        } else {
+            // one case per target state
+            Map<Integer, List<String>> labels = new LinkedHashMap<>();
+            for (Range range : cases) {
+                for (int c = range.lo(); c <= range.hi(); c++) {
+                    labels.computeIfAbsent(range.target(), target -> new ArrayList<>()).add(charLiteral(c));
+                }
+            }
+
+            line(2, "return switch (c) {");
+            for (Map.Entry<Integer, List<String>> entry : labels.entrySet()) {
+                line(3, "case %s -> %s;".formatted(String.join(", ", entry.getValue()), entry.getKey()));
+            }
+
+            if (compares.isEmpty()) {
+                line(3, "default -> DEAD_STATE;");
+            } else {
+                line(3, "default -> {");
+                this.generateCompares(4, "yield", compares);
+                line(3, "}");
+            }
+            line(2, "};");
+        }
+        line(1, "}");
+    }
+
+    private void generateCompares(int indent, String keyword, List<Range> compares) {
+        for (Range range : compares) {
+            List<String> conditions = new ArrayList<>();
+            if (range.lo() == range.hi()) {
+                conditions.add("c == %s".formatted(charLiteral(range.lo())));
+            } else {
+                if (range.lo() > 0)
+                    conditions.add("c >= %s".formatted(charLiteral(range.lo())));
+                if (range.hi() < Nfa.MAX_CHAR)
+                    conditions.add("c <= %s".formatted(charLiteral(range.hi())));
+            }
+
+            if (conditions.isEmpty()) {
+                line(indent, "%s %s;".formatted(keyword, range.target()));
+                return;
+            }
+            line(indent, "if (%s) %s %s;".formatted(String.join(" && ", conditions), keyword, range.target()));
+        }
+        line(indent, "%s DEAD_STATE;".formatted(keyword));
+    }
+
+    /**
+     * Collects the chars leading out of a state as ranges, neighbouring char classes
+     * with the same target get merged.
+     */
+    private static List<Range> transitionRanges(LexerAutomaton automaton, int state) {
+        List<Range> ranges = new ArrayList<>();
+        int classCount = automaton.getClassCount();
+
+        for (int charClass = 0; charClass < classCount; charClass++) {
+            int target = automaton.transition(state, charClass);
+            if (target == TokenAutomaton.DEAD_STATE)
+                continue;
+
+            int lo = automaton.getClassStart(charClass);
+            int hi = charClass + 1 < classCount ? automaton.getClassStart(charClass + 1) - 1 : Nfa.MAX_CHAR;
+
+            Range last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (last != null && last.target() == target && last.hi() + 1 == lo) {
+                ranges.set(ranges.size() - 1, new Range(last.lo(), hi, target));
+            } else {
+                ranges.add(new Range(lo, hi, target));
+            }
+        }
+        return ranges;
+    }
+
+    private static String charLiteral(int c) {
+        return switch (c) {
+            case '\t' -> "'\\t'";
+            case '\n' -> "'\\n'";
+            case '\r' -> "'\\r'";
+            case '\'' -> "'\\''";
+            case '\\' -> "'\\\\'";
+            default -> c >= 0x20 && c < 0x7F ? "'" + (char) c + "'" : "'\\u%04x'".formatted(c);
+        };
+    }
+
+    private static String stringLiteral(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private void line(int indent, String text) {
+        if (!text.isEmpty())
+            builder.append("    ".repeat(indent)).append(text);
+        builder.append('\n');
+    }
+
+    private record Range(int lo, int hi, int target) {
+    }
+}
@@ -0,0 +1,21 @@
+package axiol.lexer.automaton;
+
+/**
+ * Deterministic automaton recognizing the tokens of a lexer.
+ * states are plain ints, the lexer keeps feeding chars until it reaches {@link #DEAD_STATE}
+ * and uses the last state that accepted a token type as match.
+ */
+public interface TokenAutomaton {
+
+    int DEAD_STATE = -1;
+    int NO_TOKEN = -1;
+
+    int getStartState();
+
+    int next(int state, char c);
+
+    /**
+     * @return the ordinal of the token type accepted in the state or {@link #NO_TOKEN}
+     */
+    int acceptType(int state);
+}
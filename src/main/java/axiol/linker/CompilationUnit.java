@@ -0,0 +1,63 @@
+package axiol.linker;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A file linked on its own, compiled into its own assembly without the code of the files it imports.
+ */
+public class CompilationUnit {
+
+    private final String path;
+    private final String name;
+    private final LinkedSources sources;
+    // canonical paths of the units this unit imports
+    private final List<String> imports;
+    private final boolean changed;
+    private final ModuleInterface moduleInterface;
+
+    public CompilationUnit(String path, String name, LinkedSources sources, List<String> imports, boolean changed,
+                           ModuleInterface moduleInterface) {
+        this.path = path;
+        this.name = name;
+        this.sources = sources;
+        this.imports = imports;
+        this.changed = changed;
+        this.moduleInterface = moduleInterface;
+    }
+
+    /**
+     * Writes the interface of the unit, so it counts as unchanged until its content changes again.
+     */
+    public void markCompiled() throws IOException {
+        if (moduleInterface != null)
+            moduleInterface.write(ModuleInterface.pathOf(Path.of(path)));
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the path of the file relative to the source folder like a linked name, usable as the name of the output of the unit
+     */
+    public String getName() {
+        return name;
+    }
+
+    public LinkedSources getSources() {
+        return sources;
+    }
+
+    public List<String> getImports() {
+        return imports;
+    }
+
+    /**
+     * @return if the unit has to be compiled, unchanged modules were only read from their interface and have no code
+     */
+    public boolean isChanged() {
+        return changed;
+    }
+}
@@ -1,6 +1,8 @@
 package axiol.linker;
 
+import axiol.lexer.Identifiers;
 import axiol.parser.LanguageParser;
+import axiol.parser.scope.ReferenceKey;
 import axiol.parser.scope.ScopeStash;
 import axiol.parser.tree.RootNode;
 import axiol.parser.tree.Statement;
@@ -11,73 +13,273 @@ import axiol.parser.util.reference.Reference;
 import axiol.parser.util.reference.ReferenceType;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class Linker {
 
     private static final String SUFFIX = ".ax";
 
-    private final Map<String, RootNode> importedFiles = new HashMap<>();
+    private final Map<String, RootNode> importedFiles = new LinkedHashMap<>();
+    // every file of the import graph by canonical path, parsing as soon as the first import of it was seen
+    private final Map<String, Future<RootNode>> parsedFiles = new ConcurrentHashMap<>();
+    // interfaces of the modules parsed because their interface was out of date, written once their unit compiled
+    private final Map<String, ModuleInterface> parsedInterfaces = new ConcurrentHashMap<>();
 
     private final LanguageParser languageParser;
     private final File sourceFolder;
+    private final ForkJoinPool pool;
+    // imports only bring their references through module interfaces, their code is compiled on its own
+    private final boolean moduleInterfaces;
+    // modules parsed by earlier links, null to parse every import
+    private final ModuleCache moduleCache;
 
     private SourceFile mainFile;
     private ScopeStash scopeStash;
+    // the files of the last link with the files each of them imports, taken before imports are spliced into the main file
+    private Map<String, List<String>> importGraph = Map.of();
 
     public Linker(LanguageParser languageParser, File sourceFolder) {
+        this(languageParser, sourceFolder, ForkJoinPool.commonPool());
+    }
+
+    public Linker(LanguageParser languageParser, File sourceFolder, ForkJoinPool pool) {
+        this(languageParser, sourceFolder, pool, false);
+    }
+
+    public Linker(LanguageParser languageParser, File sourceFolder, ForkJoinPool pool, boolean moduleInterfaces) {
+        this(languageParser, sourceFolder, pool, moduleInterfaces, null);
+    }
+
+    public Linker(LanguageParser languageParser, File sourceFolder, ForkJoinPool pool, boolean moduleInterfaces,
+                  ModuleCache moduleCache) {
         this.languageParser = languageParser;
         this.sourceFolder = sourceFolder;
+        this.pool = pool;
+        this.moduleInterfaces = moduleInterfaces;
+        this.moduleCache = moduleCache;
     }
 
+    /**
+     * Links the root node with the code of every import spliced into it. module interfaces leave imports
+     * without code, so they only link through {@link #linkUnits(RootNode)}.
+     */
     public LinkedSources linkFiles(final RootNode rootNode) {
+        if (moduleInterfaces)
+            throw new IllegalStateException("imports of module interfaces have no code to link into one file, use linkUnits");
+
+        this.link(rootNode);
+
+        List<Statement> statements = rootNode.getStatements();
+        this.importedFiles.forEach((s, current) -> statements.addAll(current.getStatements()));
+
+        return new LinkedSources(mainFile, statements, scopeStash);
+    }
+
+    /**
+     * Links the root node like {@link #linkFiles(RootNode)}, but every file stays its own unit, starting with the main file.
+     * with module interfaces only the modules changed since their interface was written have code to compile,
+     * their interface is written by {@link CompilationUnit#markCompiled()}.
+     */
+    public List<CompilationUnit> linkUnits(final RootNode rootNode) {
+        this.link(rootNode);
+
+        List<CompilationUnit> units = new ArrayList<>();
+        String mainPath = canonicalPath(mainFile.asFile().getAbsolutePath());
+        units.add(new CompilationUnit(mainPath, this.unitName(mainPath),
+                new LinkedSources(mainFile, rootNode.getStatements(), scopeStash), this.importPaths(rootNode),
+                true, null));
+
+        this.importedFiles.forEach((path, current) -> {
+            boolean changed = !moduleInterfaces || parsedInterfaces.containsKey(path);
+            LinkedSources sources = new LinkedSources(current.getSourceFile(), current.getStatements(), current.getScopeStash());
+
+            units.add(new CompilationUnit(path, this.unitName(path), sources, this.importPaths(current), changed,
+                    parsedInterfaces.get(path)));
+        });
+        return units;
+    }
+
+    private void link(RootNode rootNode) {
         this.importedFiles.clear();
+        this.parsedFiles.clear();
+        this.parsedInterfaces.clear();
         this.scopeStash = rootNode.getScopeStash();
         this.mainFile = rootNode.getSourceFile();
 
-        this.resolveImports(rootNode);
+        try {
+            this.resolveImports(rootNode);
+        } finally {
+            this.awaitParses();
+        }
         this.checkFileCompatability();
 
-        List<Statement> statements = rootNode.getStatements();
-        this.importedFiles.forEach((s, current) -> statements.addAll(current.getStatements()));
+        Map<String, List<String>> importGraph = new LinkedHashMap<>();
+        importGraph.put(canonicalPath(mainFile.asFile().getAbsolutePath()), this.importPaths(rootNode));
+        this.importedFiles.forEach((path, current) -> importGraph.put(path, this.importPaths(current)));
+        this.importGraph = importGraph;
+    }
 
-        return new LinkedSources(mainFile, statements, scopeStash);
+    /**
+     * @return the canonical paths of the files of the last link, the main file first, with the files each of them imports
+     */
+    public Map<String, List<String>> getImportGraph() {
+        return importGraph;
     }
 
+    /**
+     * Parses the whole import graph of the root node on the pool, every file parses the moment
+     * its first import was parsed, so wide graphs parse in parallel. the references of the files
+     * are merged afterwards, depth first in the order of the imports, like parsing one by one would.
+     */
     public void resolveImports(RootNode rootNode) {
-        List<String> paths = rootNode.getStatements()
-                .stream()
-                .filter(statement -> statement instanceof LinkedNoticeStatement)
-                .map(statement -> (LinkedNoticeStatement) statement)
-                .map(LinkedNoticeStatement::getLinkedName)
-                .toList();
+        this.submitImports(rootNode);
+        this.mergeImports(rootNode);
+    }
 
-        for (String path : paths) {
-            path = sourceFolder.getAbsolutePath() + "\\" + path.replace('.', '\\') + SUFFIX;
+    private void submitImports(RootNode rootNode) {
+        for (String path : this.importPaths(rootNode)) {
+            parsedFiles.computeIfAbsent(path, key -> pool.submit(() -> {
+                RootNode current = importFile(key);
+                this.submitImports(current);
+                return current;
+            }));
+        }
+    }
 
-            if (!importedFiles.containsKey(path) && !path.equals(mainFile.asFile().getAbsolutePath())) {
-                RootNode current = importFile(path);
+    private void mergeImports(RootNode rootNode) {
+        for (String path : this.importPaths(rootNode)) {
+            if (!importedFiles.containsKey(path)) {
+                RootNode current = this.awaitImport(path);
                 importedFiles.put(path, current);
 
                 current.getScopeStash().getAllReferences().forEach(reference -> {
                     switch (reference.getType()) {
                         case NAMESPACE -> this.scopeStash
                                 .importNamespace(reference.getLocation());
-                        case VAR -> this.scopeStash.getLocalScope()
-                                .addLocalVariable(reference.getLocation(), reference.getValueType(), reference.isConstant(), reference.getName());
+                        case VAR -> {
+                            Reference copy = this.scopeStash.getLocalScope()
+                                    .addLocalVariable(reference.getLocation(), reference.getValueType(), reference.isConstant(),
+                                            Identifiers.intern(reference.getName()));
+                            if (copy != null)
+                                this.scopeStash.addImportedCopy(copy, reference);
+                        }
                         case FUNCTION -> this.scopeStash.getFunctionScope()
                                 .importFunction(reference);
                     }
                 });
 
-                this.resolveImports(current);
+                this.mergeImports(current);
+            }
+        }
+    }
+
+    private RootNode awaitImport(String path) {
+        try {
+            return parsedFiles.get(path).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException exception)
+                throw exception;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while linking", e);
+        }
+    }
+
+    /**
+     * Waits until every submitted parse finished, so none of them interns names or fills the module cache
+     * after the link returned. a failed import leaves the parses of the other files running.
+     */
+    private void awaitParses() {
+        int awaited;
+        do {
+            // parses submit the imports of their file before they finish
+            awaited = parsedFiles.size();
+            for (Future<RootNode> future : List.copyOf(parsedFiles.values())) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // reported by the import that awaited it, or by none if the link failed before
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted while linking", e);
+                }
             }
+        } while (parsedFiles.size() != awaited);
+    }
+
+    /**
+     * @return the canonical paths of the files the root node imports, without the main file
+     */
+    private List<String> importPaths(RootNode rootNode) {
+        String mainPath = canonicalPath(mainFile.asFile().getAbsolutePath());
+
+        return rootNode.getStatements()
+                .stream()
+                .filter(statement -> statement instanceof LinkedNoticeStatement)
+                .map(statement -> (LinkedNoticeStatement) statement)
+                .map(statement -> importPath(sourceFolder, statement.getLinkedName()))
+                .filter(path -> !path.equals(mainPath))
+                .toList();
+    }
+
+    /**
+     * @return the path of the file relative to the source folder without its suffix and with dots between its folders,
+     * like the linked name importing it, or the file name for a file outside of the source folder
+     */
+    private String unitName(String path) {
+        String folder = canonicalPath(sourceFolder.getAbsolutePath());
+
+        String name;
+        if (path.startsWith(folder + File.separator) || path.startsWith(folder + "\\"))
+            name = path.substring(folder.length() + 1);
+        else
+            name = new File(path).getName();
+
+        if (name.endsWith(SUFFIX))
+            name = name.substring(0, name.length() - SUFFIX.length());
+        return name.replace('\\', '.').replace('/', '.').replaceAll("[^A-Za-z0-9_.]", "_");
+    }
+
+    /**
+     * @return the canonical path of the file a linked notice with the name imports
+     */
+    public static String importPath(File sourceFolder, String linkedName) {
+        return canonicalPath(sourceFolder.getAbsolutePath() + "\\" + linkedName.replace('.', '\\') + SUFFIX);
+    }
+
+    public static String canonicalPath(String path) {
+        try {
+            return new File(path).getCanonicalPath();
+        } catch (IOException e) {
+            return new File(path).getAbsolutePath();
         }
     }
 
     public void checkFileCompatability() {
+        // the files with references of a key in import order, other files cannot conflict on it
+        Map<ReferenceKey, List<String>> filesByKey = new HashMap<>();
+        this.importedFiles.forEach((importedFilePath, importedRootNode) -> {
+            for (Reference reference : importedRootNode.getScopeStash().getAllReferences()) {
+                if (reference.getType() == ReferenceType.NAMESPACE)
+                    continue;
+
+                List<String> files = filesByKey.computeIfAbsent(ReferenceKey.of(reference), key -> new ArrayList<>());
+                if (files.isEmpty() || !files.get(files.size() - 1).equals(importedFilePath))
+                    files.add(importedFilePath);
+            }
+        });
+
         this.importedFiles.forEach((importedFilePath, importedRootNode) -> {
             importedRootNode.getScopeStash().getAllReferences().forEach(importedReference -> {
                 Reference blockingReference = this.scopeStash.containsReference(importedReference);
@@ -93,9 +295,9 @@ public class Linker {
                             importedReference.getName()).throwError();
                 }
 
-                this.importedFiles.forEach((otherFilePath, otherRootNode) -> {
+                for (String otherFilePath : filesByKey.getOrDefault(ReferenceKey.of(importedReference), List.of())) {
                     if (!otherFilePath.equals(importedFilePath)) {
-                        Reference conflictingReference = otherRootNode.getScopeStash().containsReference(importedReference);
+                        Reference conflictingReference = importedFiles.get(otherFilePath).getScopeStash().containsReference(importedReference);
 
                         if (conflictingReference != null) {
                             new LanguageException("File '%s' conflicts with file '%s'. Both contain %s in namespace '%s' with name '%s'!",
@@ -103,7 +305,7 @@ public class Linker {
                                     importedReference.getLocation().getPath(), importedReference.getName()).throwError();
                         }
                     }
-                });
+                }
             });
         });
     }
@@ -116,10 +318,43 @@ public class Linker {
         }
 
         try {
-            return languageParser.parseFile(sourceFile);
+            if (moduleInterfaces)
+                return this.importInterface(file, sourceFile);
+            if (moduleCache == null)
+                return languageParser.parseFileDeferred(sourceFile);
+
+            byte[] content = Files.readAllBytes(sourceFile.toPath());
+            return this.parseModule(file, sourceFile, content, ModuleInterface.hash(content));
         } catch (Throwable e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Reads the interface next to the file if it was written for the current content,
+     * otherwise parses the file, its interface is written once the unit of the file compiled.
+     */
+    private RootNode importInterface(String path, File sourceFile) throws IOException {
+        byte[] content = Files.readAllBytes(sourceFile.toPath());
+        byte[] hash = ModuleInterface.hash(content);
+
+        ModuleInterface moduleInterface = ModuleInterface.read(ModuleInterface.pathOf(sourceFile.toPath()), hash);
+        if (moduleInterface != null)
+            return moduleInterface.toRootNode(sourceFile);
+
+        RootNode rootNode = this.parseModule(path, sourceFile, content, hash);
+        parsedInterfaces.put(path, ModuleInterface.of(hash, rootNode));
+        return rootNode;
+    }
+
+    private RootNode parseModule(String path, File sourceFile, byte[] content, byte[] hash) throws IOException {
+        if (moduleCache == null)
+            return languageParser.parseFileDeferred(sourceFile);
+
+        RootNode rootNode = moduleCache.get(path, hash);
+        if (rootNode == null)
+            rootNode = moduleCache.put(path, hash, languageParser.parseFileDeferred(sourceFile), content.length);
+        return rootNode;
+    }
+
 }
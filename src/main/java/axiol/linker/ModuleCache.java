@@ -0,0 +1,121 @@
+package axiol.linker;
+
+import axiol.lexer.Identifiers;
+import axiol.parser.tree.RootNode;
+import axiol.parser.tree.Statement;
+import axiol.parser.util.SourceFile;
+import axiol.types.Type;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Imported modules parsed by earlier links, for a compiler that stays running between builds.
+ * a module is reused while its file has the content it was parsed from, once the estimated size
+ * of the modules is over the budget the least recently used ones are dropped. the identifiers and
+ * derived types interned by every parse count towards the budget as well, see {@link #trim()}.
+ */
+public class ModuleCache {
+
+    // about what a parsed module takes per byte of its source, deferred bodies keep their tokens
+    private static final long BYTES_PER_SOURCE_BYTE = 24;
+    // about what an interned identifier takes with its name and slot
+    private static final long BYTES_PER_IDENTIFIER = 64;
+    // about what a derived type takes with its entry in the interner
+    private static final long BYTES_PER_DERIVED_TYPE = 128;
+
+    private final long budget;
+    // in access order, the least recently used module first
+    private final Map<String, Module> modules = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    // the identifiers interned before the cache was created, like the names of the element types, which stay
+    private final int retainedIdentifiers;
+
+    public ModuleCache(long budget) {
+        this.budget = budget;
+
+        // loads Type, which interns the names of the element types
+        Type.typeBySymbol(Identifiers.NO_SYMBOL);
+        this.retainedIdentifiers = Identifiers.count();
+    }
+
+    /**
+     * @return a root node of the module as it was parsed, or null if the module was not parsed from this content
+     */
+    public synchronized RootNode get(String path, byte[] hash) {
+        Module module = modules.get(path);
+        if (module == null || !Arrays.equals(module.moduleInterface().getHash(), hash))
+            return null;
+
+        return module.toRootNode();
+    }
+
+    /**
+     * Keeps the references the module has right after parsing, parsing its deferred bodies later adds
+     * their variables to its scope stash, which no later link is supposed to see.
+     *
+     * @return a root node of the module like {@link #get} returns them, so the first link sees the same as later links
+     */
+    public synchronized RootNode put(String path, byte[] hash, RootNode rootNode, int sourceLength) {
+        Module module = new Module(rootNode.getSourceFile(), List.copyOf(rootNode.getStatements()),
+                ModuleInterface.of(hash, rootNode), sourceLength * BYTES_PER_SOURCE_BYTE);
+
+        Module replaced = modules.put(path, module);
+        if (replaced != null)
+            size -= replaced.size();
+        size += module.size();
+
+        // the new module stays even if it is over the budget on its own, it is used right away
+        long internedSize = this.getInternedSize();
+        Iterator<Module> iterator = modules.values().iterator();
+        while (size + internedSize > budget && modules.size() > 1) {
+            size -= iterator.next().size();
+            iterator.remove();
+        }
+        return module.toRootNode();
+    }
+
+    /**
+     * Empties the cache and drops the identifiers and derived types interned since it was created, once they
+     * are over the budget together with the modules. they are shared by every parse and only grow otherwise,
+     * so this is only called between builds, when no tree of an earlier parse is used anymore.
+     *
+     * @return if the cache was emptied
+     */
+    public synchronized boolean trim() {
+        if (size + this.getInternedSize() <= budget)
+            return false;
+
+        modules.clear();
+        size = 0;
+        Identifiers.truncate(retainedIdentifiers);
+        Type.clearDerived();
+        return true;
+    }
+
+    /**
+     * @return the estimated size of the identifiers and derived types interned since the cache was created
+     */
+    public long getInternedSize() {
+        return (Identifiers.count() - retainedIdentifiers) * BYTES_PER_IDENTIFIER
+                + Type.getDerivedCount() * BYTES_PER_DERIVED_TYPE;
+    }
+
+    public synchronized int getModuleCount() {
+        return modules.size();
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    private record Module(SourceFile sourceFile, List<Statement> statements, ModuleInterface moduleInterface, long size) {
+
+        RootNode toRootNode() {
+            return moduleInterface.toRootNode(sourceFile, statements);
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package axiol.linker;
+
+import axiol.parser.scope.ScopeStash;
+import axiol.parser.scope.objects.Namespace;
+import axiol.parser.statement.Accessibility;
+import axiol.parser.tree.RootNode;
+import axiol.parser.tree.Statement;
+import axiol.parser.tree.statements.LinkedNoticeStatement;
+import axiol.parser.util.SourceFile;
+import axiol.parser.util.reference.Reference;
+import axiol.parser.util.reference.ReferenceType;
+import axiol.types.Type;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What an importing file needs of a module: the references it declares and the files it links.
+ * stored as a binary .axi file next to the module together with the hash of the module content,
+ * so later builds read it from a mapped buffer instead of parsing the module while it is unchanged.
+ */
+public class ModuleInterface {
+
+    public static final String SUFFIX = "i";
+
+    private static final int MAGIC = 0x41584931;
+    private static final int VERSION = 2;
+    private static final int HASH_SIZE = 32;
+
+    private static final int IMPORTED = 1;
+    private static final int EXPORTED = 2;
+    private static final int CONSTANT = 4;
+
+    private static final int VARARGS = 1;
+    private static final int BIG = 2;
+    private static final int FLOATING = 4;
+    private static final int UNSIGNED = 8;
+
+    // the types compared by reference, a type derived from one of them is written as its index
+    private static final List<Type> SHARED_TYPES = sharedTypes();
+
+    private final byte[] hash;
+    private final List<String> linkedNames;
+    // without the root namespace, every stash creates its own
+    private final List<Reference> references;
+
+    private ModuleInterface(byte[] hash, List<String> linkedNames, List<Reference> references) {
+        this.hash = hash;
+        this.linkedNames = linkedNames;
+        this.references = references;
+    }
+
+    public static ModuleInterface of(byte[] hash, RootNode rootNode) {
+        List<String> linkedNames = new ArrayList<>();
+        for (Statement statement : rootNode.getStatements()) {
+            if (statement instanceof LinkedNoticeStatement linkedNotice)
+                linkedNames.add(linkedNotice.getLinkedName());
+        }
+
+        List<Reference> references = new ArrayList<>();
+        for (Reference reference : rootNode.getScopeStash().getAllReferences()) {
+            if (reference.getType() != ReferenceType.NAMESPACE || !reference.getLocation().isRoot())
+                references.add(reference);
+        }
+        return new ModuleInterface(hash, linkedNames, references);
+    }
+
+    public static Path pathOf(Path module) {
+        return module.resolveSibling(module.getFileName() + SUFFIX);
+    }
+
+    public static byte[] hash(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return a root node with the references and linked notices of the module, but none of its code
+     */
+    public RootNode toRootNode(File file) {
+        SourceFile sourceFile = new SourceFile(file.getParentFile(), file.toPath().toString(), null);
+
+        List<Statement> statements = new ArrayList<>();
+        for (String linkedName : linkedNames) {
+            statements.add(new LinkedNoticeStatement(linkedName, null));
+        }
+        return this.toRootNode(sourceFile, statements);
+    }
+
+    /**
+     * @return a root node with the references of the module and the given statements, like the ones it was parsed into
+     */
+    public RootNode toRootNode(SourceFile sourceFile, List<Statement> statements) {
+        RootNode rootNode = new RootNode(sourceFile, new ScopeStash());
+        rootNode.getStatements().addAll(statements);
+        rootNode.getScopeStash().getAllReferences().addAll(references);
+        return rootNode;
+    }
+
+    /**
+     * @return the interface of the file, or null if it is missing, damaged or was written for other content
+     */
+    public static ModuleInterface read(Path path, byte[] expectedHash) throws IOException {
+        if (!Files.isRegularFile(path))
+            return null;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                return null;
+
+            byte[] hash = new byte[HASH_SIZE];
+            buffer.get(hash);
+            if (!Arrays.equals(hash, expectedHash))
+                return null;
+
+            return decode(buffer, hash);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    private static ModuleInterface decode(ByteBuffer buffer, byte[] hash) {
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            int length = buffer.getInt();
+            strings[i] = StandardCharsets.UTF_8.decode(buffer.slice().limit(length)).toString();
+            buffer.position(buffer.position() + length);
+        }
+
+        Type[] types = new Type[buffer.getInt()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = decodeType(buffer, strings);
+        }
+
+        List<String> linkedNames = new ArrayList<>();
+        for (int count = buffer.getInt(); count > 0; count--) {
+            linkedNames.add(strings[buffer.getInt()]);
+        }
+
+        Namespace root = new Namespace();
+        Map<String, Namespace> namespaces = new HashMap<>();
+        List<Reference> references = new ArrayList<>();
+        for (int count = buffer.getInt(); count > 0; count--) {
+            ReferenceType referenceType = ReferenceType.values()[buffer.get()];
+            String name = strings[buffer.getInt()];
+            Namespace location = namespaces.computeIfAbsent(strings[buffer.getInt()], root::resolve);
+            int valueType = buffer.getInt();
+            int flags = buffer.get();
+
+            Accessibility[] access = new Accessibility[buffer.get()];
+            for (int i = 0; i < access.length; i++) {
+                access[i] = Accessibility.values()[buffer.get()];
+            }
+
+            Reference reference = new Reference(referenceType, name, location, valueType < 0 ? null : types[valueType], access);
+            int ident = buffer.getInt();
+            reference.setIdent(ident < 0 ? null : strings[ident]);
+            reference.setIdentId(buffer.getInt());
+            reference.setImported((flags & IMPORTED) != 0);
+            reference.setExported((flags & EXPORTED) != 0);
+            reference.setConstant((flags & CONSTANT) != 0);
+
+            int signatureLength = buffer.getInt();
+            if (signatureLength >= 0) {
+                int[] signature = new int[signatureLength];
+                for (int i = 0; i < signatureLength; i++) {
+                    signature[i] = buffer.getInt();
+                }
+                reference.setSignature(signature);
+            }
+            references.add(reference);
+        }
+
+        return new ModuleInterface(hash, linkedNames, references);
+    }
+
+    private static List<Type> sharedTypes() {
+        List<Type> types = new ArrayList<>(Arrays.asList(Type.ALL));
+        types.add(Type.MERGED);
+        return types;
+    }
+
+    /**
+     * @return the index of the shared type the type was derived from, or -1 if it was not derived from one
+     */
+    private static int sharedIndex(Type type) {
+        for (int i = 0; i < SHARED_TYPES.size(); i++) {
+            if (SHARED_TYPES.get(i) == type.getBase())
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes a type into the canonical type derived from the same shared type it was written from,
+     * so types the compiler compares by reference like {@link Type#MERGED} stay the same instance.
+     */
+    private static Type decodeType(ByteBuffer buffer, String[] strings) {
+        int shared = buffer.getInt();
+        String name = strings[buffer.getInt()];
+        int arrayDepth = buffer.getInt();
+        int pointerDepth = buffer.getInt();
+        int bits = buffer.getInt();
+        int flags = buffer.get();
+        boolean varargs = (flags & VARARGS) != 0;
+        boolean big = (flags & BIG) != 0;
+        boolean floating = (flags & FLOATING) != 0;
+        boolean unsigned = (flags & UNSIGNED) != 0;
+
+        if (shared >= 0)
+            return SHARED_TYPES.get(shared).derive(arrayDepth, pointerDepth, varargs);
+
+        return new Type(name, arrayDepth, pointerDepth, varargs, bits, big, floating, unsigned);
+    }
+
+    /**
+     * Writes the interface next to a temporary name first, so readers never see a partial file.
+     */
+    public void write(Path path) throws IOException {
+        Map<String, Integer> strings = new HashMap<>();
+        List<String> stringTable = new ArrayList<>();
+        Map<Type, Integer> types = new IdentityHashMap<>();
+        List<Type> typeTable = new ArrayList<>();
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+
+        out.writeInt(linkedNames.size());
+        for (String linkedName : linkedNames) {
+            out.writeInt(index(strings, stringTable, linkedName));
+        }
+
+        out.writeInt(references.size());
+        for (Reference reference : references) {
+            out.writeByte(reference.getType().ordinal());
+            out.writeInt(index(strings, stringTable, reference.getName()));
+            out.writeInt(index(strings, stringTable, reference.getLocation().getPath()));
+
+            Type valueType = reference.getValueType();
+            if (valueType == null) {
+                out.writeInt(-1);
+            } else {
+                Integer type = types.get(valueType);
+                if (type == null) {
+                    type = typeTable.size();
+                    types.put(valueType, type);
+                    typeTable.add(valueType);
+                }
+                out.writeInt(type);
+            }
+
+            out.writeByte((reference.isImported() ? IMPORTED : 0)
+                    | (reference.isExported() ? EXPORTED : 0)
+                    | (reference.isConstant() ? CONSTANT : 0));
+
+            Accessibility[] access = reference.getAccess();
+            out.writeByte(access.length);
+            for (Accessibility accessibility : access) {
+                out.writeByte(accessibility.ordinal());
+            }
+
+            out.writeInt(reference.getIdent() == null ? -1 : index(strings, stringTable, reference.getIdent()));
+            out.writeInt(reference.getIdentId());
+
+            int[] signature = reference.getSignature();
+            out.writeInt(signature == null ? -1 : signature.length);
+            if (signature != null) {
+                for (int key : signature) {
+                    out.writeInt(key);
+                }
+            }
+        }
+
+        ByteArrayOutputStream typeBytes = new ByteArrayOutputStream();
+        DataOutputStream typeOut = new DataOutputStream(typeBytes);
+        typeOut.writeInt(typeTable.size());
+        for (Type type : typeTable) {
+            typeOut.writeInt(sharedIndex(type));
+            typeOut.writeInt(index(strings, stringTable, type.getName()));
+            typeOut.writeInt(type.getArrayDepth());
+            typeOut.writeInt(type.getPointerDepth());
+            typeOut.writeInt(type.getBits());
+            typeOut.writeByte((type.isVarargs() ? VARARGS : 0)
+                    | (type.isBig() ? BIG : 0)
+                    | (type.isFloating() ? FLOATING : 0)
+                    | (type.isUnsigned() ? UNSIGNED : 0));
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream file = new DataOutputStream(Files.newOutputStream(temporary))) {
+            file.writeInt(MAGIC);
+            file.writeInt(VERSION);
+            file.write(hash);
+
+            file.writeInt(stringTable.size());
+            for (String string : stringTable) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                file.writeInt(bytes.length);
+                file.write(bytes);
+            }
+            typeBytes.writeTo(file);
+            body.writeTo(file);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int index(Map<String, Integer> strings, List<String> stringTable, String string) {
+        return strings.computeIfAbsent(string, key -> {
+            stringTable.add(key);
+            return stringTable.size() - 1;
+        });
+    }
+
+    public byte[] getHash() {
+        return hash;
+    }
+
+    public List<String> getLinkedNames() {
+        return linkedNames;
+    }
+
+    public List<Reference> getReferences() {
+        return references;
+    }
+}
@@ -0,0 +1,231 @@
+package axiol.linker;
+
+import axiol.build.BuildScheduler;
+import axiol.parser.LanguageParser;
+import axiol.parser.tree.RootNode;
+import axiol.parser.util.error.LanguageException;
+import axiol.parser.util.reference.Reference;
+import axiol.target.TargetFormat;
+import axiol.types.Type;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+public class TestModuleInterface {
+
+    private static final String MAIN = """
+            linked lib;
+            function main() -> i32 {
+                return 0;
+            }
+            """;
+    private static final String LIB = """
+            i32 counter = 4;
+            namespace lib {
+                function zero() -> i32 {
+                    return 0;
+                }
+            }
+            function twice(value: i32) -> i32 {
+                return value * 2;
+            }
+            """;
+    private static final String LIB_CHANGED = LIB + """
+            function thrice(value: i32) -> i32 {
+                return value * 3;
+            }
+            """;
+    private static final String LIB_BROKEN = """
+            i32 counter = 4;
+            function twice(value: i32) -> i32 {
+                i32 x = value + ;
+                return value * 2;
+            }
+            """;
+    private static final String MAIN_UNRESOLVED = """
+            linked lib1;
+            linked lib2;
+            function main() -> i32 {
+                return 0;
+            }
+            """;
+
+    public static void main(String[] args) throws IOException {
+        LanguageParser languageParser = new LanguageParser();
+        Path folder = Files.createTempDirectory("axiol-interfaces");
+        // the linker joins import paths with '\\', outside of windows the module is a file next to the folder
+        Path lib = Path.of(Linker.importPath(folder.toFile(), "lib"));
+        Path libInterface = ModuleInterface.pathOf(lib);
+        try {
+            Files.writeString(folder.resolve("main.ax"), MAIN);
+
+            testWriteRead(languageParser, folder, lib, libInterface);
+            testStaleHash(languageParser, folder, lib, libInterface);
+            testDamagedFile(languageParser, folder, lib, libInterface);
+            testBodyErrors(languageParser, folder, lib, libInterface);
+            testUnresolvedCalls(languageParser, folder);
+        } finally {
+            Files.deleteIfExists(lib);
+            Files.deleteIfExists(libInterface);
+            try (Stream<Path> files = Files.walk(folder)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    public static void testWriteRead(LanguageParser languageParser, Path folder, Path lib, Path libInterface) throws IOException {
+        System.out.println("-".repeat(100));
+        Files.writeString(lib, LIB);
+
+        List<CompilationUnit> units = link(languageParser, folder);
+        check(changed(units, lib), "a module without interface is compiled");
+        check(!Files.exists(libInterface), "the interface is only written once the module compiled");
+
+        build(folder, units);
+        check(Files.exists(libInterface), "the interface is written after the module compiled");
+
+        byte[] content = Files.readAllBytes(lib);
+        ModuleInterface read = ModuleInterface.read(libInterface, ModuleInterface.hash(content));
+        check(read != null, "the interface is read back for the same content");
+
+        RootNode parsed = languageParser.parseFileDeferred(lib.toFile());
+        ModuleInterface expected = ModuleInterface.of(ModuleInterface.hash(content), parsed);
+        check(Arrays.equals(read.getHash(), expected.getHash()), "the hash is read back");
+        check(read.getLinkedNames().equals(expected.getLinkedNames()), "the linked names are read back");
+        check(read.getReferences().equals(expected.getReferences()), "the references are read back");
+
+        check(!changed(link(languageParser, folder), lib), "a module with an up to date interface is not compiled");
+        System.out.printf("interface of %s references written and read%n", read.getReferences().size());
+    }
+
+    public static void testStaleHash(LanguageParser languageParser, Path folder, Path lib, Path libInterface) throws IOException {
+        System.out.println("-".repeat(100));
+        Files.writeString(lib, LIB_CHANGED);
+
+        check(ModuleInterface.read(libInterface, ModuleInterface.hash(Files.readAllBytes(lib))) == null,
+                "an interface of other content is not read");
+        List<CompilationUnit> units = link(languageParser, folder);
+        check(changed(units, lib), "a module changed since its interface was written is compiled");
+
+        build(folder, units);
+        ModuleInterface read = ModuleInterface.read(libInterface, ModuleInterface.hash(Files.readAllBytes(lib)));
+        check(read != null && read.getReferences().stream().anyMatch(reference -> reference.getName().equals("thrice")),
+                "the interface is rewritten for the new content");
+        check(!changed(link(languageParser, folder), lib), "the rewritten interface is up to date");
+        System.out.println("stale interface rewritten");
+    }
+
+    public static void testDamagedFile(LanguageParser languageParser, Path folder, Path lib, Path libInterface) throws IOException {
+        System.out.println("-".repeat(100));
+        byte[] hash = ModuleInterface.hash(Files.readAllBytes(lib));
+        byte[] written = Files.readAllBytes(libInterface);
+
+        int damaged = 0;
+        for (int length = 0; length < written.length; length += Math.max(1, written.length / 16)) {
+            Files.write(libInterface, Arrays.copyOf(written, length));
+            check(ModuleInterface.read(libInterface, hash) == null, "a truncated interface is not read");
+            damaged++;
+        }
+
+        byte[] flipped = written.clone();
+        flipped[0] ^= 1;
+        Files.write(libInterface, flipped);
+        check(ModuleInterface.read(libInterface, hash) == null, "an interface without magic is not read");
+
+        List<CompilationUnit> units = link(languageParser, folder);
+        check(changed(units, lib), "a module with a damaged interface is compiled");
+        build(folder, units);
+        check(ModuleInterface.read(libInterface, hash) != null, "the damaged interface is rewritten");
+        System.out.printf("%s damaged interfaces ignored%n", damaged + 1);
+    }
+
+    public static void testBodyErrors(LanguageParser languageParser, Path folder, Path lib, Path libInterface) throws IOException {
+        System.out.println("-".repeat(100));
+        Files.delete(libInterface);
+        Files.writeString(lib, LIB_BROKEN);
+
+        List<CompilationUnit> units = link(languageParser, folder);
+        boolean failed = false;
+        try {
+            build(folder, units);
+        } catch (LanguageException e) {
+            failed = true;
+        }
+        check(failed, "a syntax error in a deferred body fails the build of the module");
+        check(!Files.exists(libInterface), "no interface is written for a module that did not compile");
+
+        failed = false;
+        try {
+            new Linker(languageParser, folder.toFile(), ForkJoinPool.commonPool(), true).linkFiles(parseMain(languageParser, folder));
+        } catch (IllegalStateException e) {
+            failed = true;
+        }
+        check(failed, "imports of module interfaces are not linked into one file");
+        check(!Files.exists(libInterface), "linking into one file writes no interface");
+        System.out.println("no interface written for a broken module");
+    }
+
+    public static void testUnresolvedCalls(LanguageParser languageParser, Path folder) throws IOException {
+        System.out.println("-".repeat(100));
+        Path lib1 = Path.of(Linker.importPath(folder.toFile(), "lib1"));
+        Path lib2 = Path.of(Linker.importPath(folder.toFile(), "lib2"));
+        try {
+            Files.writeString(folder.resolve("main.ax"), MAIN_UNRESOLVED);
+            Files.writeString(lib1, "i32 one = helper();\n");
+            Files.writeString(lib2, "i32 two = helper();\n");
+
+            build(folder, link(languageParser, folder));
+            check(Files.exists(ModuleInterface.pathOf(lib1)) && Files.exists(ModuleInterface.pathOf(lib2)),
+                    "both modules have an interface");
+
+            List<CompilationUnit> units = link(languageParser, folder);
+            check(!changed(units, lib1) && !changed(units, lib2), "both modules are read from their interfaces");
+            for (Reference reference : ModuleInterface.read(ModuleInterface.pathOf(lib1), ModuleInterface.hash(Files.readAllBytes(lib1))).getReferences()) {
+                if (reference.getName().equals("helper"))
+                    check(reference.getValueType() == Type.MERGED, "the type of an unresolved call is read back as the shared type");
+            }
+            System.out.println("unresolved calls of two interfaces do not conflict");
+        } finally {
+            for (Path module : List.of(lib1, lib2)) {
+                Files.deleteIfExists(module);
+                Files.deleteIfExists(ModuleInterface.pathOf(module));
+            }
+            Files.writeString(folder.resolve("main.ax"), MAIN);
+        }
+    }
+
+    private static List<CompilationUnit> link(LanguageParser languageParser, Path folder) throws IOException {
+        return new Linker(languageParser, folder.toFile(), ForkJoinPool.commonPool(), true)
+                .linkUnits(parseMain(languageParser, folder));
+    }
+
+    private static RootNode parseMain(LanguageParser languageParser, Path folder) throws IOException {
+        return languageParser.parseSource(folder.toFile(), "main.ax", Files.readString(folder.resolve("main.ax")));
+    }
+
+    private static void build(Path folder, List<CompilationUnit> units) throws IOException {
+        new BuildScheduler(ForkJoinPool.commonPool(), folder.resolve("build").toFile(), TargetFormat.X86).build(units);
+    }
+
+    private static boolean changed(List<CompilationUnit> units, Path module) {
+        String path = Linker.canonicalPath(module.toString());
+        for (CompilationUnit unit : units) {
+            if (unit.getPath().equals(path))
+                return unit.isChanged();
+        }
+        throw new IllegalStateException("no unit for " + module);
+    }
+
+    private static void check(boolean condition, String expectation) {
+        if (!condition)
+            throw new IllegalStateException("expected that " + expectation);
+    }
+}
@@ -0,0 +1,23 @@
+package axiol.mangler;
+
+import java.util.Arrays;
+
+/**
+ * Function part of the scope keys, the name key of {@link Mangler#variableKey} plus
+ * the {@link Mangler#typeKey} of the return and parameter types.
+ */
+public record FunctionKey(long name, int[] signature) {
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FunctionKey that = (FunctionKey) o;
+        return name == that.name && Arrays.equals(signature, that.signature);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(name) + Arrays.hashCode(signature);
+    }
+}
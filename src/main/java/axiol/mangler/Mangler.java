@@ -12,7 +12,6 @@ import java.util.List;
 
 public class Mangler {
     private static final String BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
-    private static final String HEX = "0123456789abcdef";
 
     private static final char SEPARATION_CHAR = '|';
 
@@ -36,26 +35,45 @@ public class Mangler {
         return "%s|%s".formatted(namespace.getPath(), name);
     }
 
+    /**
+     * Scope key of a variable, equal for the same {@link #mangleVariable(Namespace, String)}.
+     */
+    public static long variableKey(Namespace namespace, int name) {
+        return ((long) namespace.getSymbol() << 32) | (name & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Scope key of a function, equal for the same {@link #mangleFunction(Type, Namespace, String, List)}.
+     */
+    public static FunctionKey functionKey(Type returnType, Namespace namespace, int name, List<Reference> parameters) {
+        return new FunctionKey(variableKey(namespace, name), signature(returnType, parameters));
+    }
+
+    public static int[] signature(Type returnType, List<Reference> parameters) {
+        int[] signature = new int[parameters.size() + 1];
+        signature[0] = typeKey(returnType);
+        for (int i = 0; i < parameters.size(); i++) {
+            signature[i + 1] = typeKey(parameters.get(i).getValueType());
+        }
+        return signature;
+    }
+
+    /**
+     * Packs the parts of {@link #mangleType(Type)} into an int.
+     */
+    public static int typeKey(Type type) {
+        if (type == Type.MERGED) {
+            return -1;
+        }
+        int kind = type.isBig() ? 0 : type.isUnsigned() ? 1 : type.isFloating() ? 2 : 3;
+        return kind | type.getArrayDepth() << 2 | type.getPointerDepth() << 6 | type.getBits() << 10;
+    }
+
     public static String mangleType(Type type) {
         if (type == Type.MERGED) {
             return "?";
         }
-        StringBuilder sb = new StringBuilder();
-        if (type.isBig())
-            sb.append('b');
-        else if (type.isUnsigned())
-            sb.append('u');
-        else if (type.isFloating())
-            sb.append('f');
-        else
-            sb.append('s');
-
-        sb.append('x').append(HEX.charAt(type.getArrayDepth()))
-                .append('p').append(HEX.charAt(type.getPointerDepth()))
-
-                .append(BASE64.charAt(type.getBits() % 64))
-                .append(BASE64.charAt(type.getBits() / 64));
-        return sb.toString();
+        return type.getMangledName();
     }
 
 }
\ No newline at end of file
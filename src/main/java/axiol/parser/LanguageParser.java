@@ -1,8 +1,12 @@
 package axiol.parser;
 
 import axiol.Architecture;
+import axiol.lexer.Identifiers;
 import axiol.lexer.LanguageLexer;
+import axiol.lexer.NumberLiteral;
 import axiol.lexer.Token;
+import axiol.lexer.TokenBuffer;
+import axiol.lexer.TokenSequence;
 import axiol.lexer.TokenType;
 import axiol.parser.expression.Operator;
 import axiol.parser.scope.objects.Namespace;
@@ -27,10 +31,12 @@ import axiol.parser.tree.statements.VariableStatement;
 import axiol.parser.tree.statements.control.*;
 import axiol.parser.tree.statements.oop.*;
 import axiol.parser.tree.statements.special.NativeStatement;
+import axiol.parser.util.MappedSourceReader;
 import axiol.parser.util.Parser;
 import axiol.parser.util.SourceFile;
 import axiol.parser.util.error.LanguageException;
 import axiol.parser.util.error.Position;
+import axiol.parser.util.error.SyntaxErrorsException;
 import axiol.parser.util.error.TokenPosition;
 import axiol.parser.util.reference.Reference;
 import axiol.parser.util.reference.ReferenceType;
@@ -40,7 +46,10 @@ import axiol.types.custom.I128;
 import axiol.types.custom.U128;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 /**
  * The type Language parser.
@@ -49,12 +58,26 @@ public class LanguageParser extends Parser {
 
     private static final EmptyStatement EMPTY_STATEMENT = new EmptyStatement();
 
-    private final TokenType[] accessModifier = {
+    private static final Set<TokenType> ACCESS_MODIFIERS = EnumSet.of(
             TokenType.PUBLIC, TokenType.PRIVATE, TokenType.INLINE, TokenType.CONST,
             TokenType.EXTERN, TokenType.PROTECTED
-    };
-    
-    private final TokenType[] valueContainingTypes = {
+    );
+
+    // tokens a statement starts with, a statement that failed to parse is skipped up to one of them
+    private static final Set<TokenType> STATEMENT_START = EnumSet.of(
+            TokenType.FUNCTION, TokenType.LINKED, TokenType.NAMESPACE, TokenType.CLASS, TokenType.STRUCTURE,
+            TokenType.CONSTRUCT, TokenType.PUBLIC, TokenType.PRIVATE, TokenType.INLINE, TokenType.CONST,
+            TokenType.EXTERN, TokenType.PROTECTED, TokenType.IF, TokenType.WHILE, TokenType.DO, TokenType.LOOP,
+            TokenType.FOR, TokenType.SWITCH, TokenType.NATIVE, TokenType.UNREACHABLE, TokenType.RETURN,
+            TokenType.YIELD, TokenType.CONTINUE, TokenType.BREAK
+    );
+
+    // syntax errors a parse collects before it stops and reports them
+    public static final int DEFAULT_ERROR_LIMIT = 50;
+    // sources from this size on are lexed in parallel, below it the pre scan of the chunks costs more than it saves
+    private static final int PARALLEL_LEXING_SIZE = 1 << 20;
+
+    private static final Set<TokenType> VALUE_CONTAINING_TYPES = EnumSet.of(
             // chars strings
             TokenType.STRING, TokenType.CHAR,
             // true false
@@ -66,58 +89,238 @@ public class LanguageParser extends Parser {
             TokenType.BIG_NUMBER, TokenType.BIG_HEX_NUM,
             // other
             TokenType.LITERAL
-    };
-    private final TokenType[] numberContainingTypes = {
+    );
+    private static final Set<TokenType> NUMBER_CONTAINING_TYPES = EnumSet.of(
             TokenType.INT, TokenType.LONG, TokenType.DOUBLE,
             TokenType.FLOAT, TokenType.HEX_NUM,
 
             TokenType.BIG_NUMBER, TokenType.BIG_HEX_NUM
-    };
+    );
 
-    private ScopeStash scopeStash;
+    // the state of a single parse, every parse runs on its own instance created by the private
+    // constructor, so the parser callers hold is never changed and can parse on many threads at once
+    private final ScopeStash scopeStash;
 
-    private TokenStream tokenStream;
-    private String source;
-    private String path;
+    private final TokenStream tokenStream;
+    private final String source;
+    private final String path;
+    private final boolean deferBodies;
+    private final int errorLimit;
+    private final List<LanguageException> errors;
+
+    public LanguageParser() {
+        this(DEFAULT_ERROR_LIMIT);
+    }
+
+    /**
+     * @param errorLimit the syntax errors a parse collects before it stops, with 1 it stops at the first one
+     */
+    public LanguageParser(int errorLimit) {
+        this(null, null, null, false, errorLimit);
+    }
+
+    private LanguageParser(SourceFile sourceFile, TokenStream tokenStream, ScopeStash scopeStash, boolean deferBodies,
+                           int errorLimit) {
+        this.scopeStash = scopeStash;
+        this.tokenStream = tokenStream;
+        this.source = sourceFile == null ? null : sourceFile.getContent();
+        this.path = sourceFile == null ? null : sourceFile.getFileName();
+        this.deferBodies = deferBodies;
+        this.errorLimit = Math.max(1, errorLimit);
+        this.errors = new ArrayList<>();
+    }
 
     @Override
     public RootNode parseFile(File file) throws Throwable {
-        StringBuilder builder = new StringBuilder();
-        Scanner scanner = new Scanner(file);
+        return parseSource(file.getParentFile(), file.toPath().toString(), readSource(file));
+    }
 
-        File folder = file.getParentFile();
+    /**
+     * Parses a file like {@link #parseFile(File)}, but function bodies are only skipped by matching their
+     * braces and get parsed once {@link FunctionStatement#getBodyStatement()} asks for them.
+     * the declarations of the file are complete right away, which is all an importing file needs.
+     */
+    public RootNode parseFileDeferred(File file) throws IOException {
+        String content = readSource(file);
+        SourceFile sourceFile = new SourceFile(file.getParentFile(), file.toPath().toString(), content);
+
+        return parseTokens(sourceFile, tokenize(content), true, errorLimit);
+    }
+
+    private static String readSource(File file) throws IOException {
+        return SourceFile.readContent(file.toPath());
+    }
+
+    /**
+     * Parses a file without loading it as a whole, tokens get lexed from the
+     * mapped file while parsing. errors are reported without the source line.
+     */
+    public RootNode parseFileStreaming(File file) throws IOException {
+        try (MappedSourceReader reader = MappedSourceReader.open(file.toPath())) {
+            return parseStream(file.getParentFile(), file.toPath().toString(), reader);
+        }
+    }
 
-        while (scanner.hasNextLine())
-            builder.append(scanner.nextLine()).append("\n");
+    public RootNode parseStream(File folder, String path, Readable source) {
+        SourceFile sourceFile = new SourceFile(folder, path, null);
+        LanguageLexer lexer = new LanguageLexer();
 
-        scanner.close();
-        return parseSource(folder, file.toPath().toString(), builder.toString());
+        return parseTokens(sourceFile, lexer.tokenizeStream(source), false, errorLimit);
     }
 
     @Override
     public RootNode parseSource(File folder, String path, String content) {
         SourceFile sourceFile = new SourceFile(folder, path, content);
+
+        return parseTokens(sourceFile, tokenize(content), false, errorLimit);
+    }
+
+    /**
+     * @return the tokens of the source, lexed in chunks on the common pool if it is large and the pool has threads for it
+     */
+    private static TokenBuffer tokenize(String content) {
         LanguageLexer lexer = new LanguageLexer();
+        if (content.length() >= PARALLEL_LEXING_SIZE && ForkJoinPool.getCommonPoolParallelism() > 1)
+            return lexer.tokenizeParallel(content);
 
-        this.scopeStash = new ScopeStash();
-        RootNode rootNode = new RootNode(sourceFile, scopeStash);
+        return lexer.tokenizeBuffer(content);
+    }
 
-        List<Token> tokens = lexer.tokenizeString(content);
+    private static RootNode parseTokens(SourceFile sourceFile, TokenSequence tokens, boolean deferBodies, int errorLimit) {
+        LanguageParser parser = new LanguageParser(sourceFile, new TokenStream(sourceFile, tokens), new ScopeStash(),
+                deferBodies, errorLimit);
+        return parser.parseRoot(sourceFile);
+    }
 
-        this.tokenStream = new TokenStream(sourceFile, tokens);
-        this.source = content;
-        this.path = path;
+    private RootNode parseRoot(SourceFile sourceFile) {
+        RootNode rootNode = new RootNode(sourceFile, scopeStash);
 
-        while (tokenStream.hasMoreTokens()) {
-            Statement statement = this.parseStatement();
+        RuntimeException failure = null;
+        try {
+            while (tokenStream.hasMoreTokens()) {
+                Statement statement = this.parseRecovering(this::parseStatement, false);
 
-            if (statement != null)
-                rootNode.getStatements().add(statement);
+                if (statement != null)
+                    rootNode.getStatements().add(statement);
+            }
+        } catch (ParseAbortedException ignored) {
+        } catch (RuntimeException exception) {
+            if (errors.isEmpty())
+                throw exception;
+            failure = exception;
         }
+        this.reportErrors(failure);
 
         return rootNode;
     }
 
+    /**
+     * Parses a statement, on a syntax error the error is kept and the tokens up to the next statement are skipped,
+     * so the statements after it are still parsed and report their own errors.
+     *
+     * @param nested if the statement is in braces, the closing brace is then left for the enclosing body
+     * @return the statement parsed, or null if it had an error
+     */
+    private Statement parseRecovering(Supplier<Statement> statementParser, boolean nested) {
+        int start = this.tokenStream.getIndex();
+        ScopeStash.ScopeMark mark = scopeStash.markScopes();
+        try {
+            return statementParser.get();
+        } catch (LanguageException exception) {
+            errors.add(exception);
+            if (errors.size() >= errorLimit)
+                throw new ParseAbortedException();
+
+            scopeStash.resetScopes(mark);
+            this.synchronize(start, nested);
+
+            // a body without its closing brace has nothing left to recover in
+            if (nested && !this.tokenStream.hasMoreTokens())
+                throw new ParseAbortedException();
+            return null;
+        }
+    }
+
+    /**
+     * Skips the rest of a statement that failed to parse: past the next ';' or braced block,
+     * or up to a closing brace or a token that starts a statement.
+     */
+    private void synchronize(int start, boolean nested) {
+        // a missing ';' is reported at the token of the next statement, which is kept
+        if (this.tokenStream.getIndex() > start && (this.isStatementStart() || this.isType(0)))
+            return;
+        if (this.tokenStream.getIndex() == start)
+            this.tokenStream.advance();
+
+        while (this.tokenStream.hasMoreTokens()) {
+            TokenType type = this.tokenStream.currentType();
+            if (type == TokenType.SEMICOLON) {
+                this.tokenStream.advance();
+                return;
+            }
+            if (type == TokenType.R_CURLY) {
+                if (!nested)
+                    this.tokenStream.advance();
+                return;
+            }
+            if (type == TokenType.L_CURLY) {
+                this.skipBlock();
+
+                if (this.tokenStream.matches(TokenType.SEMICOLON))
+                    this.tokenStream.advance();
+                if (!this.tokenStream.matches(TokenType.ELSE))
+                    return;
+            }
+            if (this.isStatementStart())
+                return;
+            this.tokenStream.advance();
+        }
+    }
+
+    private void skipBlock() {
+        int depth = 0;
+        do {
+            if (this.tokenStream.matches(TokenType.L_CURLY)) {
+                depth++;
+            } else if (this.tokenStream.matches(TokenType.R_CURLY)) {
+                depth--;
+            }
+            this.tokenStream.advance();
+        } while (depth > 0 && this.tokenStream.hasMoreTokens());
+    }
+
+    private boolean isStatementStart() {
+        TokenType type = this.tokenStream.currentType();
+        return type != null && STATEMENT_START.contains(type);
+    }
+
+    /**
+     * Throws the errors the parse collected, a single one exactly like it was found.
+     *
+     * @param failure what the parse failed with after skipping the errors, null if it did not,
+     *                kept as suppressed exception of the error thrown
+     */
+    private void reportErrors(RuntimeException failure) {
+        if (errors.isEmpty())
+            return;
+
+        LanguageException error = errors.size() == 1 ? errors.get(0) : new SyntaxErrorsException(errors);
+        if (failure != null)
+            error.addSuppressed(failure);
+        error.throwError();
+    }
+
+    /**
+     * Stops a parse once it reached the limit of errors or has no tokens left to recover in.
+     */
+    private static class ParseAbortedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ParseAbortedException() {
+            super(null, null, false, false);
+        }
+    }
+
     /**
      * Parse body statements for global .
      * contains:
@@ -132,60 +335,45 @@ public class LanguageParser extends Parser {
      * @return the statement parsed
      */
     public Statement parseStatement() {
-        if ((isAccessModifier() && isType()) || isType()) {
-            if (isAccessModifier()) {
-                return this.parseVariableStatement(this.parseAccess());
-            }
-            return this.parseVariableStatement();
-        }
-        if ((isAccessModifier() && this.tokenStream.peak(1).getType().equals(TokenType.CLASS)) ||
-                this.tokenStream.matches(TokenType.CLASS)) {
-            if (isAccessModifier()) {
-                return this.parseClassTypeStatement(this.parseAccess());
-            }
-            return this.parseClassTypeStatement();
-        }
+        // the access modifier is parsed once up front, it applies to whatever declaration follows
+        if (this.isAccessModifier())
+            return this.parseDeclaration(this.parseAccess());
+
         if (this.tokenStream.matches(TokenType.NAMESPACE)) {
             return this.parseNamespaceStatement();
         }
-        if ((isAccessModifier() && this.tokenStream.peak(1).getType().equals(TokenType.CONSTRUCT)) ||
-                this.tokenStream.matches(TokenType.CONSTRUCT)) {
-            if (isAccessModifier()) {
-                return this.parseConstructStatement(this.parseAccess());
-            }
-            return this.parseConstructStatement();
-        }
-        if ((isAccessModifier() && this.tokenStream.peak(1).getType().equals(TokenType.STRUCTURE)) ||
-                this.tokenStream.matches(TokenType.STRUCTURE)) {
-            if (isAccessModifier()) {
-                return this.parseStructStatement(this.parseAccess());
-            }
-            return this.parseStructStatement();
-        }
-
-        if ((isAccessModifier() && this.tokenStream.peak(1).getType().equals(TokenType.FUNCTION))
-                || this.tokenStream.matches(TokenType.FUNCTION)) {
-            if (isAccessModifier()) {
-                return this.parseFunction(this.parseAccess());
-            }
-            return this.parseFunction();
-        }
         if (this.tokenStream.matches(TokenType.LINKED)) {
             this.tokenStream.advance();
 
             return this.parseLinkingNotice();
         }
+        return this.parseDeclaration();
+    }
 
-        Token unidentified = this.isAccessModifier() ? this.tokenStream.peak(1) : this.tokenStream.current();
-        this.createSyntaxError(unidentified, "statement not suited for parsing with token '%s'", unidentified);
-        return null;
+    private Statement parseDeclaration(Accessibility... accessibility) {
+        if (this.isType(0)) {
+            return this.parseVariableStatement(accessibility);
+        }
+
+        TokenType type = this.tokenStream.currentType();
+        return switch (type == null ? TokenType.EOF : type) {
+            case CLASS -> this.parseClassTypeStatement(accessibility);
+            case CONSTRUCT -> this.parseConstructStatement(accessibility);
+            case STRUCTURE -> this.parseStructStatement(accessibility);
+            case FUNCTION -> this.parseFunction(accessibility);
+            default -> {
+                Token unidentified = this.tokenStream.current();
+                this.createSyntaxError(unidentified, "statement not suited for parsing with token '%s'", unidentified);
+                yield null;
+            }
+        };
     }
 
     public Namespace readNamespace() {
         List<String> namespaceParts = new ArrayList<>();
-        while (this.tokenStream.peak(1).getType() == TokenType.FN_ACCESS) {
+        while (this.tokenStream.peakType(1) == TokenType.FN_ACCESS) {
             this.expected(TokenType.LITERAL);
-            namespaceParts.add(this.tokenStream.current().getValue());
+            namespaceParts.add(this.tokenStream.currentValue());
             this.tokenStream.advance();
             this.tokenStream.advance();
         }
@@ -213,7 +401,7 @@ public class LanguageParser extends Parser {
         this.tokenStream.advance();
 
         this.expected(TokenType.LITERAL);
-        String className = this.tokenStream.current().getValue();
+        String className = this.tokenStream.currentValue();
         TokenPosition position = this.tokenStream.currentPosition();
         this.tokenStream.advance();
 
@@ -224,7 +412,7 @@ public class LanguageParser extends Parser {
             this.tokenStream.advance();
 
             this.expected(TokenType.LITERAL);
-            parentClass = this.tokenStream.current().getValue();
+            parentClass = this.tokenStream.currentValue();
             this.tokenStream.advance();
         }
 
@@ -242,13 +430,13 @@ public class LanguageParser extends Parser {
         int namespaceCount = 0;
         do {
             expected(TokenType.LITERAL);
-            String namespaceName = this.tokenStream.current().getValue();
+            String namespaceName = this.tokenStream.currentValue();
             this.tokenStream.advance();
 
             scopeStash.pushNamespace(namespaceName);
             namespaceCount++;
 
-            if (this.tokenStream.current().getType() == TokenType.L_CURLY) {
+            if (this.tokenStream.currentType() == TokenType.L_CURLY) {
                 break;
             }
 
@@ -275,7 +463,7 @@ public class LanguageParser extends Parser {
         if (!this.tokenStream.matches(TokenType.LITERAL)) {
             return null;
         }
-        String structName = this.tokenStream.current().getValue();
+        String structName = this.tokenStream.currentValue();
         TokenPosition position = this.tokenStream.currentPosition();
         this.tokenStream.advance();
 
@@ -295,7 +483,7 @@ public class LanguageParser extends Parser {
 
         List<Statement> statements = new ArrayList<>();
         while (!this.tokenStream.matches(TokenType.R_CURLY)) {
-            Statement statement = this.parseStatement();
+            Statement statement = this.parseRecovering(this::parseStatement, true);
 
             if (statement == null)
                 continue;
@@ -319,7 +507,7 @@ public class LanguageParser extends Parser {
 
         List<Statement> statements = new ArrayList<>();
         while (!this.tokenStream.matches(TokenType.R_CURLY)) {
-            Statement statement = this.parseStatementForBody();
+            Statement statement = this.parseRecovering(this::parseStatementForBody, true);
 
             if (statement == null)
                 continue;
@@ -367,66 +555,56 @@ public class LanguageParser extends Parser {
         if (isUDTDefinition()) {
             return this.parseUDTDeclare();
         }
-        if (this.tokenStream.matches(TokenType.IF)) {
-            return this.parseIfStatement();
-        }
-        if (this.tokenStream.matches(TokenType.WHILE)) {
-            return this.parseWhileStatement();
-        }
-        if (this.tokenStream.matches(TokenType.DO)) {
-            return this.parseDoWhileStatement();
-        }
-        if (this.tokenStream.matches(TokenType.LOOP)) {
-            return this.parseLoopStatement();
-        }
-        if (this.tokenStream.matches(TokenType.FOR)) {
-            return this.parseForStatement();
-        }
-        if (this.tokenStream.matches(TokenType.SWITCH)) {
-            return this.parseSwitchStatement();
-        }
+        return switch (this.tokenStream.currentType()) {
+            case IF -> this.parseIfStatement();
+            case WHILE -> this.parseWhileStatement();
+            case DO -> this.parseDoWhileStatement();
+            case LOOP -> this.parseLoopStatement();
+            case FOR -> this.parseForStatement();
+            case SWITCH -> this.parseSwitchStatement();
 
-        // ir or asm modifying statements
-        if (this.tokenStream.matches(TokenType.NATIVE)) {
-            return this.parseNativeStatement();
-        }
+            // ir or asm modifying statements
+            case NATIVE -> this.parseNativeStatement();
 
-        // one line statements
-        if (this.tokenStream.matches(TokenType.UNREACHABLE)) {
-            return this.parseUnreachable();
-        }
-        if (this.tokenStream.matches(TokenType.RETURN)) {
-            TokenPosition position = this.tokenStream.currentPosition();
-            this.tokenStream.advance();
+            // one line statements
+            case UNREACHABLE -> this.parseUnreachable();
+            case RETURN -> {
+                TokenPosition position = this.tokenStream.currentPosition();
+                this.tokenStream.advance();
 
-            Expression value = this.parseExpression(Type.VOID);
+                Expression value = this.parseExpression(Type.VOID);
 
-            expectLineEnd();
-            return new ReturnStatement(value, position);
-        }
-        if (this.tokenStream.matches(TokenType.YIELD)) {
-            TokenPosition position = this.tokenStream.currentPosition();
-            this.tokenStream.advance();
+                expectLineEnd();
+                yield new ReturnStatement(value, position);
+            }
+            case YIELD -> {
+                TokenPosition position = this.tokenStream.currentPosition();
+                this.tokenStream.advance();
 
-            Expression value = this.parseExpression(Type.VOID);
+                Expression value = this.parseExpression(Type.VOID);
 
-            expectLineEnd();
-            return new YieldStatement(value, position);
-        }
-        if (this.tokenStream.matches(TokenType.CONTINUE)) {
-            TokenPosition position = this.tokenStream.currentPosition();
-            this.tokenStream.advance();
+                expectLineEnd();
+                yield new YieldStatement(value, position);
+            }
+            case CONTINUE -> {
+                TokenPosition position = this.tokenStream.currentPosition();
+                this.tokenStream.advance();
 
-            expectLineEnd();
-            return new ContinueStatement(position);
-        }
-        if (this.tokenStream.matches(TokenType.BREAK)) {
-            TokenPosition position = this.tokenStream.currentPosition();
-            this.tokenStream.advance();
+                expectLineEnd();
+                yield new ContinueStatement(position);
+            }
+            case BREAK -> {
+                TokenPosition position = this.tokenStream.currentPosition();
+                this.tokenStream.advance();
 
-            expectLineEnd();
-            return new BreakStatement(position);
-        }
+                expectLineEnd();
+                yield new BreakStatement(position);
+            }
+            default -> this.parseExpressionStatement();
+        };
+    }
+
+    private Statement parseExpressionStatement() {
         Expression expression = this.parseExpression(Type.VOID);
         if (expression != null) {
             if (this.tokenStream.matches(TokenType.SEMICOLON))
@@ -435,7 +613,7 @@ public class LanguageParser extends Parser {
             return expression;
         }
 
-        createSyntaxError("no matching statement found for '%s'", this.tokenStream.current().getType());
+        createSyntaxError("no matching statement found for '%s'", this.tokenStream.currentType());
         return null;
     }
 
@@ -447,8 +625,8 @@ public class LanguageParser extends Parser {
         this.tokenStream.advance();
 
         TokenPosition position = this.tokenStream.currentPosition();
-        NativeStatement.Type type = this.tokenStream.current().getType() == TokenType.ASM ? NativeStatement.Type.ASM :
-                this.tokenStream.current().getType() == TokenType.ISA ? NativeStatement.Type.IR : null;
+        NativeStatement.Type type = this.tokenStream.currentType() == TokenType.ASM ? NativeStatement.Type.ASM :
+                this.tokenStream.currentType() == TokenType.ISA ? NativeStatement.Type.IR : null;
 
         if (type == null) {
             this.createSyntaxError(this.tokenStream.current(),
@@ -461,7 +639,7 @@ public class LanguageParser extends Parser {
             if (this.expected(TokenType.COMMA)) {
                 this.tokenStream.advance();
             }
-            String arch = this.tokenStream.current().getValue();
+            String arch = this.tokenStream.currentValue();
             architecture = Architecture.valueOf(arch.toUpperCase(Locale.ROOT));
             this.tokenStream.advance();
         }
@@ -480,7 +658,7 @@ public class LanguageParser extends Parser {
 
         while (!this.tokenStream.matches(TokenType.R_CURLY)) {
             this.expected(TokenType.STRING);
-            String line = this.tokenStream.current().getValue();
+            String line = this.tokenStream.currentValue();
             this.tokenStream.advance();
             List<Expression> params = new ArrayList<>();
 
@@ -581,7 +759,7 @@ public class LanguageParser extends Parser {
             }
 
             createSyntaxError(start, "expected 'case' or 'default' but got '%s'",
-                    this.tokenStream.current().getType());
+                    this.tokenStream.currentType());
         }
 
         if (!this.expected(TokenType.R_CURLY))
@@ -612,9 +790,10 @@ public class LanguageParser extends Parser {
 
         // for (name: type -> expr)
         if (this.tokenStream.matches(TokenType.LITERAL) &&
-                this.tokenStream.peak(1).getType().equals(TokenType.COLON)) {
+                this.tokenStream.peakType(1).equals(TokenType.COLON)) {
 
-            String name = this.tokenStream.current().getValue();
+            String name = this.tokenStream.currentValue();
+            int nameSymbol = this.tokenStream.currentSymbol();
             this.tokenStream.advance();
 
             if (!this.expected(TokenType.COLON))
@@ -631,11 +810,11 @@ public class LanguageParser extends Parser {
                 return null;
             this.tokenStream.advance();
 
-            if (this.scopeStash.getLocalScope().getLocal(this.scopeStash.getNamespace(), name) != null) {
+            if (this.scopeStash.getLocalScope().getLocal(this.scopeStash.getNamespace(), nameSymbol) != null) {
                 createSyntaxError(position, "A local variable '%s' has already been defined", name);
             }
             Reference reference = this.scopeStash.getLocalScope()
-                    .addLocalVariable(this.scopeStash.getNamespace(), type, false, name);
+                    .addLocalVariable(this.scopeStash.getNamespace(), type, false, nameSymbol);
 
             Expression expression = this.parseExpression(type);
 
@@ -772,7 +951,7 @@ public class LanguageParser extends Parser {
         if (!this.expected(TokenType.LITERAL))
             return null;
 
-        StringBuilder path = new StringBuilder(this.tokenStream.current().getValue());
+        StringBuilder path = new StringBuilder(this.tokenStream.currentValue());
         TokenPosition position = this.tokenStream.currentPosition();
         this.tokenStream.advance();
 
@@ -780,14 +959,14 @@ public class LanguageParser extends Parser {
             this.tokenStream.advance();
             path.append("/");
 
-            while (tokenStream.current().getType() != TokenType.SEMICOLON) {
+            while (tokenStream.currentType() != TokenType.SEMICOLON) {
                 if (!this.expected(TokenType.LITERAL))
                     return null;
 
-                path.append(this.tokenStream.current().getValue());
+                path.append(this.tokenStream.currentValue());
                 this.tokenStream.advance();
 
-                if (this.tokenStream.current().getType() == TokenType.SEMICOLON)
+                if (this.tokenStream.currentType() == TokenType.SEMICOLON)
                     continue;
 
                 if (!this.expected(TokenType.DOT))
@@ -812,7 +991,8 @@ public class LanguageParser extends Parser {
         if (!this.tokenStream.matches(TokenType.LITERAL)) {
             return null;
         }
-        String functionName = this.tokenStream.current().getValue();
+        String functionName = this.tokenStream.currentValue();
+        int functionSymbol = this.tokenStream.currentSymbol();
         TokenPosition position = this.tokenStream.currentPosition();
 
         this.tokenStream.advance();
@@ -826,15 +1006,21 @@ public class LanguageParser extends Parser {
             returnType = this.parseType();
         }
 
-        BodyStatement bodyStatement = this.parseBodyStatement();
+        BodyStatement bodyStatement = null;
+        Supplier<BodyStatement> deferredBody = null;
+        if (deferBodies) {
+            deferredBody = this.skipBodyStatement(parameters);
+        } else {
+            bodyStatement = this.parseBodyStatement();
+        }
 
         Reference reference = scopeStash.getFunctionScope().addFunction(returnType,
                 scopeStash.getNamespace(),
-                functionName, parameters);
+                functionSymbol, parameters);
 
         if (reference == null) {
             Reference blocker = scopeStash.getFunctionScope().getFunctionBlocking(scopeStash.getNamespace(),
-                    functionName, returnType, parameters);
+                    functionSymbol, returnType, parameters);
 
             TokenPosition syntaxPosition = scopeStash.getFirstReferencePosition(blocker);
             Position startPos = syntaxPosition == null ? null : syntaxPosition.getStart();
@@ -851,14 +1037,81 @@ public class LanguageParser extends Parser {
         // Always set reference position
         scopeStash.setReferencePosition(reference, position);
 
-        FunctionStatement functionNameSyntax = new FunctionStatement(functionName, accessibility,
-                        parameters, bodyStatement, returnType, reference, position);
+        FunctionStatement functionNameSyntax = deferBodies
+                ? new FunctionStatement(functionName, accessibility, parameters, deferredBody, returnType, reference, position)
+                : new FunctionStatement(functionName, accessibility, parameters, bodyStatement, returnType, reference, position);
 
         scopeStash.getLocalScope().popLocals();
 
         return functionNameSyntax;
     }
 
+    /**
+     * Skips a body by matching its braces.
+     *
+     * @return parses the body later on its own parser, in the namespace and with the parameters it was declared with
+     */
+    private Supplier<BodyStatement> skipBodyStatement(List<Parameter> parameters) {
+        if (!this.expected(TokenType.L_CURLY))
+            return null;
+
+        SourceFile sourceFile = this.tokenStream.getSourceFile();
+        TokenSequence tokens = this.tokenStream.getTokens();
+        int start = this.tokenStream.getIndex();
+        ScopeStash scopeStash = this.scopeStash;
+        Reference namespace = scopeStash.getNamespaceReference();
+
+        int depth = 0;
+        do {
+            if (!this.tokenStream.hasMoreTokens())
+                this.expected(TokenType.R_CURLY);
+
+            if (this.tokenStream.matches(TokenType.L_CURLY)) {
+                depth++;
+            } else if (this.tokenStream.matches(TokenType.R_CURLY)) {
+                depth--;
+            }
+            this.tokenStream.advance();
+        } while (depth > 0);
+
+        int errorLimit = this.errorLimit;
+        return () -> new LanguageParser(sourceFile, new TokenStream(sourceFile, tokens, start), scopeStash, false,
+                errorLimit).parseDeferredBody(namespace, parameters);
+    }
+
+    private BodyStatement parseDeferredBody(Reference namespace, List<Parameter> parameters) {
+        // bodies of one file share its scopes, so they are parsed one at a time
+        synchronized (scopeStash) {
+            scopeStash.pushNamespace(namespace);
+            scopeStash.getLocalScope().pushBlock();
+            scopeStash.getLocalScope().pushLocals();
+            for (Parameter parameter : parameters) {
+                scopeStash.getLocalScope().restoreVariable(parameter.getReference());
+            }
+
+            ScopeStash.ScopeMark mark = scopeStash.markScopes();
+            BodyStatement bodyStatement = null;
+            RuntimeException failure = null;
+            try {
+                bodyStatement = this.parseBodyStatement();
+            } catch (LanguageException exception) {
+                errors.add(exception);
+            } catch (ParseAbortedException ignored) {
+            } catch (RuntimeException exception) {
+                if (errors.isEmpty())
+                    throw exception;
+                failure = exception;
+            }
+            scopeStash.resetScopes(mark);
+
+            scopeStash.getLocalScope().popLocals();
+            scopeStash.getLocalScope().popBlock();
+            scopeStash.popNamespace();
+            this.reportErrors(failure);
+            return bodyStatement;
+        }
+    }
+
     public List<Parameter> parseParameters(boolean createReference, TokenType open, TokenType close) {
         List<Parameter> parameters = new ArrayList<>();
 
@@ -881,7 +1134,8 @@ public class LanguageParser extends Parser {
                 referenced = true;
             }
             this.expected(TokenType.LITERAL);
-            String parameterName = this.tokenStream.current().getValue();
+            String parameterName = this.tokenStream.currentValue();
+            int parameterSymbol = this.tokenStream.currentSymbol();
             this.tokenStream.advance();
 
             this.expected(TokenType.COLON);
@@ -892,7 +1146,7 @@ public class LanguageParser extends Parser {
             Reference reference = null;
             if (createReference)
                 reference = scopeStash.getLocalScope()
-                         .addLocalVariable(scopeStash.getNamespace(), type, false, parameterName);
+                         .addLocalVariable(scopeStash.getNamespace(), type, false, parameterSymbol);
 
             if (this.tokenStream.matches(TokenType.COMMA)) {
                 this.tokenStream.advance();
@@ -920,14 +1174,14 @@ public class LanguageParser extends Parser {
 
     public Statement parseUDTDeclare() {
         this.expected(TokenType.LITERAL);
-        String udtType = this.tokenStream.current().getValue();
+        String udtType = this.tokenStream.currentValue();
         this.tokenStream.advance();
 
         this.expected(TokenType.COLON);
         this.tokenStream.advance();
 
         this.expected(TokenType.LITERAL);
-        String udtName = this.tokenStream.current().getValue();
+        String udtName = this.tokenStream.currentValue();
         TokenPosition position = this.tokenStream.currentPosition();
         this.tokenStream.advance();
 
@@ -963,33 +1217,43 @@ public class LanguageParser extends Parser {
         if (!expected(TokenType.LITERAL))
             return null;
 
-        String name = this.tokenStream.current().getValue();
+        String name = this.tokenStream.currentValue();
+        int nameSymbol = this.tokenStream.currentSymbol();
 
         TokenPosition position = this.tokenStream.currentPosition();
         this.tokenStream.advance();
 
+        Namespace namespace = scopeStash.getNamespace();
+
         Expression initExpression = null;
         if (this.tokenStream.matches(TokenType.EQUAL)) {
             this.tokenStream.advance();
 
-            initExpression = this.parseExpression(type);
+            ScopeStash.ScopeMark mark = scopeStash.markScopes();
+            try {
+                initExpression = this.parseExpression(type);
+            } catch (LanguageException exception) {
+                // the variable is declared anyway, so its uses after the error are not reported as undefined too
+                scopeStash.resetScopes(mark);
+                if (scopeStash.getLocalScope().getVariable(namespace, nameSymbol) == null)
+                    scopeStash.getLocalScope().addLocalVariable(namespace, type, true, nameSymbol);
+                throw exception;
+            }
         }
 
         if (this.tokenStream.matches(TokenType.SEMICOLON))
             this.tokenStream.advance();
 
-        Namespace namespace = scopeStash.getNamespace();
-
-        if (scopeStash.getLocalScope().getVariable(namespace, name) != null) {
+        if (scopeStash.getLocalScope().getVariable(namespace, nameSymbol) != null) {
             createSyntaxError(position, "A %s variable '%s' has already been defined", "local", name);
         }
 
-        Reference reference = scopeStash.getLocalScope().addLocalVariable(namespace, type, true, name);
+        Reference reference = scopeStash.getLocalScope().addLocalVariable(namespace, type, true, nameSymbol);
         return new VariableStatement(name, type, initExpression, reference, position, accessibility);
     }
 
     public Accessibility parseAccess() {
-        Accessibility accessibility = switch (this.tokenStream.current().getType()) {
+        Accessibility accessibility = switch (this.tokenStream.currentType()) {
             case PUBLIC -> Accessibility.PUBLIC;
             case PRIVATE -> Accessibility.PRIVATE;
             case PROTECTED -> Accessibility.PROTECTED;
@@ -1001,7 +1265,7 @@ public class LanguageParser extends Parser {
             default -> {
                 createSyntaxError(
                         "expected access modifier but got '%s'",
-                        this.tokenStream.current().getValue());
+                        this.tokenStream.currentValue());
                 yield Accessibility.PRIVATE;
             }
         };
@@ -1011,24 +1275,24 @@ public class LanguageParser extends Parser {
     }
 
     public boolean isUDTDefinition() {
-        return this.tokenStream.current().getType().equals(TokenType.LITERAL) && this.tokenStream.peak(1).getType() == TokenType.COLON;
+        return this.tokenStream.currentType().equals(TokenType.LITERAL) && this.tokenStream.peakType(1) == TokenType.COLON;
     }
 
     public boolean isType() {
-        int peak = 0;
-        if (isAccessModifier()) {
-            peak = 1;
-        }
-        if (this.tokenStream.peak(peak).getType() == TokenType.MULTIPLY) {
-            while (this.tokenStream.peak(peak).getType() == TokenType.MULTIPLY)
+        return this.isType(this.isAccessModifier() ? 1 : 0);
+    }
+
+    private boolean isType(int peak) {
+        if (this.tokenStream.peakType(peak) == TokenType.MULTIPLY) {
+            while (this.tokenStream.peakType(peak) == TokenType.MULTIPLY)
                 peak++;
         }
 
-        return !Type.typeByToken(this.tokenStream.peak(peak)).equals(Type.NONE);
+        return !Type.typeBySymbol(this.tokenStream.peakSymbol(peak)).equals(Type.NONE);
     }
 
     public boolean isAccessModifier() {
-        return Arrays.stream(this.accessModifier).anyMatch(type -> type == this.tokenStream.current().getType());
+        return ACCESS_MODIFIERS.contains(this.tokenStream.currentType());
     }
 
     public Type parseType() {
@@ -1040,8 +1304,7 @@ public class LanguageParser extends Parser {
             }
         }
 
-        Token typeToken = this.tokenStream.current();
-        Type type = Type.typeByToken(typeToken);
+        Type type = Type.typeBySymbol(this.tokenStream.currentSymbol());
         this.tokenStream.advance();
 
         int arrayDepth = 0;
@@ -1054,7 +1317,7 @@ public class LanguageParser extends Parser {
         }
 
         // todo implement varargs
-        return new Type(type, arrayDepth, pointerDepth, false);
+        return type.derive(arrayDepth, pointerDepth, false);
     }
 
     public void expectLineEnd() {
@@ -1091,219 +1354,199 @@ public class LanguageParser extends Parser {
         if (priority < 0)
             priority = 0;
 
-        Operator[] operators = Operator.getOperatorsByPriority(priority).toArray(new Operator[0]);
+        Expression leftAssociated;
+        // lower priorities bind stronger, after an operator only operators of the same or a
+        // higher priority may follow, at the same priority postfix operators come before binary ones
+        int order;
 
-        if (priority == 0) {
+        Operator prefix = Operator.getPrefixOperator(this.tokenStream.currentType());
+        if (prefix != null && prefix.getPriority() <= priority) {
+            this.tokenStream.advance();
 
-            // &expr
-            if (tokenStream.matches(TokenType.AND)) {
-                this.tokenStream.advance();
+            leftAssociated = new UnaryExpression(prefix, this.parseExpression(simpleType, prefix.getPriority()),
+                    this.tokenStream.currentPosition());
+            order = prefix.getPriority() * 2;
+        } else {
+            leftAssociated = this.parseAtom(simpleType);
+            order = 0;
+        }
+
+        while (true) {
+            Operator operator = Operator.getInfixOperator(this.tokenStream.currentType());
+            if (operator == null || operator.getPriority() > priority || operatorOrder(operator) < order)
+                break;
+
+            this.tokenStream.advance();
+            order = operatorOrder(operator);
 
-                return new ElementReferenceExpression(this.parseExpression(simpleType, Operator.MAX_PRIORITY), this.tokenStream.currentPosition());
+            if (operator.isUnary()) {
+                leftAssociated = new UnaryExpression(operator, leftAssociated,
+                        this.tokenStream.currentPosition());
+                continue;
             }
-            // [_] empty array 0 elements
-            // [expression] sized empty array
-            if (tokenStream.matches(TokenType.L_SQUARE)) {
-                this.tokenStream.advance();
 
-                if (this.tokenStream.matches(TokenType.UNDERSCORE)) {
-                    this.tokenStream.advance();
+            Expression right = operator.isLeftAssociated() ?
+                    parseExpression(simpleType, operator.getPriority() - 1) : parseExpression(simpleType, operator.getPriority());
 
-                    expected(TokenType.R_SQUARE);
-                    Token current = this.tokenStream.current();
-                    this.tokenStream.advance();
+            leftAssociated = new BinaryExpression(operator, leftAssociated, right,
+                    this.tokenStream.currentPosition());
+        }
 
-                    return new ArrayInitExpression(new ArrayList<>(), simpleType, new NumberExpression(
-                            current.getTokenPosition(), 0, Type.I32, true), this.tokenStream.currentPosition());
-                }
-                Expression expression = this.parseExpression(simpleType, 0);
+        return leftAssociated;
+    }
 
-                expected(TokenType.R_SQUARE);
-                this.tokenStream.advance();
+    private static int operatorOrder(Operator operator) {
+        return operator.getPriority() * 2 + (operator.isUnary() ? 0 : 1);
+    }
 
-                return new ArrayInitExpression(new ArrayList<>(), simpleType, expression, this.tokenStream.currentPosition());
-            }
-            if (tokenStream.matches(TokenType.CAST)) {
-                TokenPosition tokenPosition = tokenStream.currentPosition();
-                this.tokenStream.advance();
+    private Expression parseAtom(Type simpleType) {
+        // &expr
+        if (tokenStream.matches(TokenType.AND)) {
+            this.tokenStream.advance();
 
-                expected(TokenType.L_SQUARE);
-                this.tokenStream.advance();
+            return new ElementReferenceExpression(this.parseExpression(simpleType, Operator.MAX_PRIORITY), this.tokenStream.currentPosition());
+        }
+        // [_] empty array 0 elements
+        // [expression] sized empty array
+        if (tokenStream.matches(TokenType.L_SQUARE)) {
+            this.tokenStream.advance();
 
-                Type type = parseType();
+            if (this.tokenStream.matches(TokenType.UNDERSCORE)) {
+                this.tokenStream.advance();
 
                 expected(TokenType.R_SQUARE);
+                Token current = this.tokenStream.current();
                 this.tokenStream.advance();
 
-                Expression expression = parseExpression(type);
-                return new CastExpression(tokenPosition, type, expression);
+                return new ArrayInitExpression(new ArrayList<>(), simpleType, new NumberExpression(
+                        current.getTokenPosition(), 0, Type.I32, true), this.tokenStream.currentPosition());
             }
-            if (tokenStream.matches(TokenType.STACK_ALLOC)) {
-                TokenPosition tokenPosition = tokenStream.currentPosition();
-                this.tokenStream.advance();
-
-                expected(TokenType.L_SQUARE);
-                this.tokenStream.advance();
+            Expression expression = this.parseExpression(simpleType, 0);
 
-                Type type = parseType();
+            expected(TokenType.R_SQUARE);
+            this.tokenStream.advance();
 
-                Expression depth = null;
-                if (this.tokenStream.matches(TokenType.COMMA)) {
-                    this.tokenStream.advance();
+            return new ArrayInitExpression(new ArrayList<>(), simpleType, expression, this.tokenStream.currentPosition());
+        }
+        if (tokenStream.matches(TokenType.CAST)) {
+            TokenPosition tokenPosition = tokenStream.currentPosition();
+            this.tokenStream.advance();
 
-                    depth = parseExpression(type, 0);
+            expected(TokenType.L_SQUARE);
+            this.tokenStream.advance();
 
-                    if (depth instanceof NumberExpression expression) {
-                        expected(TokenType.R_SQUARE);
-                        this.tokenStream.advance();
+            Type type = parseType();
 
-                        return new StackAllocExpression(tokenPosition, type, expression);
-                    }
-                    createSyntaxError(depth.position(), "expected number but got %s", depth.type().name());
-                }
-                expected(TokenType.R_SQUARE);
-                this.tokenStream.advance();
-                return new StackAllocExpression(tokenPosition, type,
-                        new NumberExpression(tokenPosition, 1, Type.I32, true));
-            }
-            // {expr, expr, expr, ...}
-            if (tokenStream.matches(TokenType.L_CURLY)) {
-                this.tokenStream.advance();
+            expected(TokenType.R_SQUARE);
+            this.tokenStream.advance();
 
-                List<Expression> expressions = new ArrayList<>();
+            Expression expression = parseExpression(type);
+            return new CastExpression(tokenPosition, type, expression);
+        }
+        if (tokenStream.matches(TokenType.STACK_ALLOC)) {
+            TokenPosition tokenPosition = tokenStream.currentPosition();
+            this.tokenStream.advance();
 
-                while (!tokenStream.matches(TokenType.R_CURLY)) {
-                    Expression element = this.parseExpression(simpleType, 0);
-                    expressions.add(element);
+            expected(TokenType.L_SQUARE);
+            this.tokenStream.advance();
 
-                    if (this.tokenStream.matches(TokenType.R_CURLY))
-                        continue;
+            Type type = parseType();
 
-                    if (!expected(TokenType.COMMA)) {
-                        return null;
-                    }
-                    tokenStream.advance();
-                }
-                TokenPosition position = this.tokenStream.currentPosition();
-                expected(TokenType.R_CURLY);
+            Expression depth = null;
+            if (this.tokenStream.matches(TokenType.COMMA)) {
                 this.tokenStream.advance();
 
-                return new ArrayInitExpression(expressions, simpleType, new NumberExpression(
-                        position, expressions.size(), Type.I32, true), this.tokenStream.currentPosition());
-            }
+                depth = parseExpression(type, 0);
 
-            if (Arrays.stream(valueContainingTypes)
-                    .anyMatch(type -> type.equals(this.tokenStream.current().getType()))) {
-                return parseTypeExpression(simpleType);
-            }
-            if (tokenStream.matches(TokenType.MATCH)) {
-                return this.parseMatchExpression(simpleType);
-            }
-            if (tokenStream.matches(TokenType.L_PAREN)) {
-                this.tokenStream.advance();
-                Expression expression = parseExpression(simpleType, Operator.MAX_PRIORITY);
-                if (tokenStream.matches(TokenType.R_PAREN)) {
+                if (depth instanceof NumberExpression expression) {
+                    expected(TokenType.R_SQUARE);
                     this.tokenStream.advance();
-                } else {
-                    createSyntaxError(
-                            "expected closing parenthesis but got '%s'",
-                            tokenStream.current().getValue());
+
+                    return new StackAllocExpression(tokenPosition, type, expression);
                 }
-                return expression;
+                createSyntaxError(depth.position(), "expected number but got %s", depth.type().name());
             }
-            // atomics
+            expected(TokenType.R_SQUARE);
+            this.tokenStream.advance();
+            return new StackAllocExpression(tokenPosition, type,
+                    new NumberExpression(tokenPosition, 1, Type.I32, true));
         }
-
-        int operatorCycles = 0;
-        Expression leftAssociated = null;
-
-        // unary
-        for (Operator operator : operators) {
-            if (!operator.isUnary() || operator.isLeftAssociated() ||
-                    !this.tokenStream.matches(operator.getType()))
-                continue;
-
+        // {expr, expr, expr, ...}
+        if (tokenStream.matches(TokenType.L_CURLY)) {
             this.tokenStream.advance();
 
-            leftAssociated = new UnaryExpression(operator, this.parseExpression(simpleType, priority),
-                    this.tokenStream.currentPosition());
-        }
-        if (leftAssociated == null) {
-            leftAssociated = this.parseExpression(simpleType, priority - 1);
-        }
+            List<Expression> expressions = new ArrayList<>();
 
-        // append last lef-associated Expression
-        while (operatorCycles == 0) {
-            operatorCycles = 1;
+            while (!tokenStream.matches(TokenType.R_CURLY)) {
+                Expression element = this.parseExpression(simpleType, 0);
+                expressions.add(element);
 
-            for (Operator operator : operators) {
-                if (!operator.isUnary() || !operator.isLeftAssociated() ||
-                        !this.tokenStream.matches(operator.getType()))
+                if (this.tokenStream.matches(TokenType.R_CURLY))
                     continue;
 
-                tokenStream.advance();
-                operatorCycles = 0;
-
-                leftAssociated = new UnaryExpression(operator, leftAssociated,
-                        this.tokenStream.currentPosition());
-            }
-        }
-        // reset for next loop
-        operatorCycles = 0;
-
-        // binary expression from past unary left
-        while (operatorCycles == 0) {
-            operatorCycles = 1;
-
-            for (Operator operator : operators) {
-                if (operator.isUnary() || !tokenStream.matches(operator.getType())) {
-                    continue;
+                if (!expected(TokenType.COMMA)) {
+                    return null;
                 }
-
                 tokenStream.advance();
-                operatorCycles = 0;
+            }
+            TokenPosition position = this.tokenStream.currentPosition();
+            expected(TokenType.R_CURLY);
+            this.tokenStream.advance();
 
-                Expression right = operator.isLeftAssociated() ?
-                        parseExpression(simpleType, priority - 1) : parseExpression(simpleType, priority);
+            return new ArrayInitExpression(expressions, simpleType, new NumberExpression(
+                    position, expressions.size(), Type.I32, true), this.tokenStream.currentPosition());
+        }
 
-                leftAssociated = new BinaryExpression(operator, leftAssociated, right,
-                        this.tokenStream.currentPosition());
+        if (VALUE_CONTAINING_TYPES.contains(this.tokenStream.currentType())) {
+            return parseTypeExpression(simpleType);
+        }
+        if (tokenStream.matches(TokenType.MATCH)) {
+            return this.parseMatchExpression(simpleType);
+        }
+        if (tokenStream.matches(TokenType.L_PAREN)) {
+            this.tokenStream.advance();
+            Expression expression = parseExpression(simpleType, Operator.MAX_PRIORITY);
+            if (tokenStream.matches(TokenType.R_PAREN)) {
+                this.tokenStream.advance();
+            } else {
+                createSyntaxError(
+                        "expected closing parenthesis but got '%s'",
+                        tokenStream.currentValue());
             }
+            return expression;
         }
 
-
-        return leftAssociated;
+        createSyntaxError("expected expression but got '%s'", this.tokenStream.currentValue());
+        return null;
     }
 
     private Expression parseTypeExpression(Type simpleType) {
-        if (Arrays.stream(numberContainingTypes)
-                .anyMatch(type -> type.equals(tokenStream.current().getType()))) {
+        if (NUMBER_CONTAINING_TYPES.contains(this.tokenStream.currentType())) {
 
-            String tokenValue = this.tokenStream.current().getValue();
-            Number value = 0; // default init 0
-            boolean signed = true;
+            // the lexer already decoded the number while scanning it
+            int flags = this.tokenStream.currentNumberFlags();
+            long bits = this.tokenStream.currentNumber();
+            boolean signed = (flags & NumberLiteral.UNSIGNED) == 0;
 
+            if ((flags & NumberLiteral.INVALID) != 0)
+                createSyntaxError("invalid number '%s'", this.tokenStream.currentValue());
+
+            Number value = 0; // default init 0
             if (this.tokenStream.matches(TokenType.HEX_NUM)) {
-                value = Long.parseUnsignedLong(tokenValue.substring(2), 16);
+                value = bits;
             } else if (this.tokenStream.matches(TokenType.BIG_HEX_NUM)) {
                 // todo
+            } else if (this.tokenStream.matches(TokenType.BIG_NUMBER)) {
+                long high = this.tokenStream.currentNumberHigh();
+                value = signed ? new I128(high, bits) : new U128(high, bits);
+            } else if ((flags & NumberLiteral.FLOATING) != 0) {
+                value = Double.longBitsToDouble(bits);
             } else {
-                if (tokenValue.charAt(tokenValue.length() - 1) == 'u' ||
-                        tokenValue.charAt(tokenValue.length() - 1) == 'U') {
-                    signed = false;
-
-                    tokenValue = tokenValue.substring(0, tokenValue.length() - 1);
-                }
-
-                if (this.tokenStream.matches(TokenType.BIG_NUMBER)) {
-                    value = signed ? new I128(tokenValue) : new U128(tokenValue);
-                } else {
-                    value = Double.parseDouble(tokenValue);
-                }
-
+                // decimal numbers are kept as doubles, the decoded value is unsigned
+                value = bits >= 0 ? (double) bits : (double) ((bits >>> 1) | (bits & 1)) * 2;
             }
 
-            Type type = switch (this.tokenStream.current().getType()) {
+            Type type = switch (this.tokenStream.currentType()) {
                 case INT, HEX_NUM -> signed ? Type.I32 : Type.U32;
                 case DOUBLE, LONG -> signed ? Type.I64 : Type.U64;
                 case FLOAT -> Type.F32;
@@ -1311,7 +1554,7 @@ public class LanguageParser extends Parser {
                 case BYTE -> signed ? Type.I8 : Type.U8;
                 case BIG_NUMBER, BIG_HEX_NUM -> signed ? Type.I128 : Type.U128;
                 default -> throw new IllegalArgumentException("Expected Number-Type but got '%s'"
-                        .formatted(this.tokenStream.current().getType()));
+                        .formatted(this.tokenStream.currentType()));
             };
 
             NumberExpression numberExpression = new NumberExpression(
@@ -1321,8 +1564,8 @@ public class LanguageParser extends Parser {
             return numberExpression;
         }
         if (tokenStream.matches(TokenType.CHAR)) {
-            String singletonChar = this.tokenStream.current().getValue()
-                    .substring(1, tokenStream.current().getValue().length() - 1);
+            String singletonChar = this.tokenStream.currentValue()
+                    .substring(1, tokenStream.currentValue().length() - 1);
 
             int value = singletonChar.charAt(0);
 
@@ -1333,8 +1576,8 @@ public class LanguageParser extends Parser {
             return numberExpression;
         }
         if (tokenStream.matches(TokenType.STRING)) {
-            String singletonString = this.tokenStream.current().getValue()
-                    .substring(1, tokenStream.current().getValue().length() - 1);
+            String singletonString = this.tokenStream.currentValue()
+                    .substring(1, tokenStream.currentValue().length() - 1);
 
             StringExpression stringExpression = new StringExpression(
                     this.tokenStream.currentPosition(), singletonString);
@@ -1344,7 +1587,7 @@ public class LanguageParser extends Parser {
         }
         if (tokenStream.matches(TokenType.BOOLEAN)) {
             BooleanExpression expression = new BooleanExpression(this.tokenStream.currentPosition(),
-                    tokenStream.current().getValue().equals("true"));
+                    tokenStream.currentValue().equals("true"));
 
             this.tokenStream.advance();
             return expression;
@@ -1353,22 +1596,22 @@ public class LanguageParser extends Parser {
             Namespace namespace = this.readNamespace();
 
             // function call!
-            if (this.tokenStream.peak(1).getType() == TokenType.L_PAREN) {
+            if (this.tokenStream.peakType(1) == TokenType.L_PAREN) {
                 TokenPosition nameSyntaxPosition = this.tokenStream.currentPosition();
 
-                String name = this.tokenStream.current().getValue();
+                int nameSymbol = this.tokenStream.currentSymbol();
                 this.tokenStream.advance();
 
                 expected(TokenType.L_PAREN);
                 this.tokenStream.advance();
 
                 List<Expression> parameters = new ArrayList<>();
-                while (this.tokenStream.current().getType() != TokenType.R_PAREN) {
+                while (this.tokenStream.currentType() != TokenType.R_PAREN) {
                     parameters.add(parseExpression(Type.VOID));
 
-                    if (this.tokenStream.current().getType() == TokenType.COMMA) {
+                    if (this.tokenStream.currentType() == TokenType.COMMA) {
                         this.tokenStream.advance();
-                        if (this.tokenStream.current().getType() == TokenType.R_PAREN) {
+                        if (this.tokenStream.currentType() == TokenType.R_PAREN) {
                             createSyntaxError("Invalid comma before ')'");
                         }
                     } else {
@@ -1381,9 +1624,9 @@ public class LanguageParser extends Parser {
 
                 expected(TokenType.R_PAREN);
 
-                Reference reference = scopeStash.getFunctionScope().getFunction(namespace, name, simpleParameters);
+                Reference reference = scopeStash.getFunctionScope().getFunction(namespace, nameSymbol, simpleParameters);
                 if (reference == null) {
-                    reference = scopeStash.getFunctionScope().importFunction(namespace, name, simpleParameters);
+                    reference = scopeStash.getFunctionScope().importFunction(namespace, nameSymbol, simpleParameters);
                     scopeStash.setReferencePosition(reference, nameSyntaxPosition);
                 }
                 this.tokenStream.advance();
@@ -1391,24 +1634,26 @@ public class LanguageParser extends Parser {
                 return new CallExpression(reference, parameters, nameSyntaxPosition);
             }
 
-            String name = this.tokenStream.current().getValue();
+            String name = this.tokenStream.currentValue();
             TokenPosition namePosition = this.tokenStream.currentPosition();
             String referenceName = name;
+            int referenceSymbol = this.tokenStream.currentSymbol();
 
-            if (this.tokenStream.peak(1).getType() == TokenType.DOT) {
+            if (this.tokenStream.peakType(1) == TokenType.DOT) {
                 this.tokenStream.advance();
 
                 expected(TokenType.DOT);
                 this.tokenStream.advance();
 
                 expected(TokenType.LITERAL);
-                String innerName = this.tokenStream.current().getValue();
+                String innerName = this.tokenStream.currentValue();
                 referenceName = "%s.%s".formatted(name, innerName);
+                referenceSymbol = Identifiers.intern(referenceName);
             }
 
-            Reference reference = scopeStash.getLocalScope().getVariable(namespace, referenceName);
+            Reference reference = scopeStash.getLocalScope().getVariable(namespace, referenceSymbol);
             if (reference == null) {
-                reference = scopeStash.getLocalScope().importVariable(namespace, referenceName);
+                reference = scopeStash.getLocalScope().importVariable(namespace, referenceSymbol);
                 scopeStash.setReferencePosition(reference, this.tokenStream.currentPosition());
 
                 createSyntaxError("Could not find the variable '%s'", referenceName);
@@ -1421,7 +1666,7 @@ public class LanguageParser extends Parser {
 
         createSyntaxError(
                 "invalid token for expression parsing: '%s'",
-                this.tokenStream.current().getType());
+                this.tokenStream.currentType());
         return null;
     }
 
@@ -1494,7 +1739,7 @@ public class LanguageParser extends Parser {
             }
 
             createSyntaxError(start, "expected 'case' or 'default' but got '%s'",
-                    this.tokenStream.current().getType());
+                    this.tokenStream.currentType());
         }
 
         if (!expected(TokenType.R_CURLY))
@@ -1519,38 +1764,26 @@ public class LanguageParser extends Parser {
         if (this.tokenStream.matches(type)) {
             return true;
         }
-        createSyntaxError("unexpected token expected '%s' but got '%s'", type, this.tokenStream.current().getType());
+        createSyntaxError("unexpected token expected '%s' but got '%s'", type, this.tokenStream.currentType());
         return false;
     }
 
     public void createSyntaxError(String message, Object... args) {
         LanguageException languageException = new LanguageException(source, this.tokenStream.current(), path, message, args);
-        languageException.throwError();
+        throw languageException;
     }
 
     public void createSyntaxError(Token position, String message, Object... args) {
         LanguageException languageException = new LanguageException(source, position, path, message, args);
-        languageException.throwError();
+        throw languageException;
     }
 
     public void createSyntaxError(TokenPosition position, String message, Object... args) {
         LanguageException languageException = new LanguageException(source, position, path, message, args);
-        languageException.throwError();
-    }
-
-    public TokenStream getTokenStream() {
-        return tokenStream;
-    }
-
-    public String getPath() {
-        return path;
-    }
-
-    public String getSource() {
-        return source;
+        throw languageException;
     }
 
-    public TokenType[] getAccessModifier() {
-        return accessModifier;
+    public Set<TokenType> getAccessModifier() {
+        return ACCESS_MODIFIERS;
     }
 }
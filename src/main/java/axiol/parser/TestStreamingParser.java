@@ -0,0 +1,138 @@
+package axiol.parser;
+
+import axiol.Main;
+import axiol.instruction.InstructionGenerator;
+import axiol.instruction.InstructionSet;
+import axiol.lexer.LanguageLexer;
+import axiol.lexer.TokenRing;
+import axiol.linker.LinkedSources;
+import axiol.parser.tree.RootNode;
+import axiol.parser.tree.Statement;
+import axiol.parser.util.SourceFile;
+import axiol.parser.util.reference.Reference;
+import axiol.target.TargetFormat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+public class TestStreamingParser {
+
+    // further than the initial capacity of the token ring
+    private static final int POINTER_DEPTH = 200;
+
+    public static void main(String[] args) throws IOException {
+        LanguageParser languageParser = new LanguageParser();
+
+        testCorpus(languageParser);
+        testLongLookahead(languageParser);
+    }
+
+    public static void testCorpus(LanguageParser languageParser) throws IOException {
+        System.out.println("-".repeat(100));
+
+        int mismatches = 0;
+        List<Path> files = corpus();
+        for (Path file : files) {
+            String content = SourceFile.readContent(file);
+            File folder = file.getParent().toFile();
+            String path = file.toString();
+
+            String expected = render(() -> languageParser.parseSource(folder, path, content));
+            String mapped = render(() -> {
+                try {
+                    return languageParser.parseFileStreaming(file.toFile());
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            String singleChars = render(() -> languageParser.parseStream(folder, path, singleChars(content)));
+
+            if (!expected.equals(mapped) || !expected.equals(singleChars)) {
+                System.out.printf("mismatch in %s%n", file);
+                mismatches++;
+            }
+        }
+
+        System.out.printf("%s files, %s mismatches%n", files.size(), mismatches);
+        if (mismatches > 0)
+            throw new IllegalStateException("streamed parsing differs from parsing the buffer");
+    }
+
+    public static void testLongLookahead(LanguageParser languageParser) {
+        System.out.println("-".repeat(100));
+
+        // deciding that this is a declaration peeks over every '*' before the type
+        String content = "*".repeat(POINTER_DEPTH) + "i32 deep = 1;\nfunction main() -> i32 {\n    return 0;\n}\n";
+
+        TokenRing ring = new LanguageLexer().tokenizeStream(new StringReader(content));
+        int capacity = ring.getCapacity();
+        ring.hasToken(POINTER_DEPTH + 1);
+        if (capacity > POINTER_DEPTH || ring.getCapacity() <= POINTER_DEPTH)
+            throw new IllegalStateException("expected that the ring grows for the lookahead");
+
+        File folder = Main.TESTING_FOLDER;
+        String expected = render(() -> languageParser.parseSource(folder, "deep.ax", content));
+        String actual = render(() -> languageParser.parseStream(folder, "deep.ax", new StringReader(content)));
+        if (!expected.equals(actual) || !actual.contains("pointerDepth=" + POINTER_DEPTH))
+            throw new IllegalStateException("expected that a lookahead over the ring capacity parses like the buffer");
+
+        System.out.printf("lookahead of %s tokens, ring grew from %s to %s%n", POINTER_DEPTH + 1, capacity, ring.getCapacity());
+    }
+
+    /**
+     * @return the statements, references and assembly of the parsed file, or the error parsing it failed with
+     */
+    private static String render(Supplier<RootNode> parse) {
+        RootNode rootNode;
+        try {
+            rootNode = parse.get();
+        } catch (RuntimeException e) {
+            return "error: " + e.getClass().getSimpleName();
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for (Statement statement : rootNode.getStatements()) {
+            builder.append(statement.getClass().getSimpleName()).append('\n');
+        }
+        for (Reference reference : rootNode.getScopeStash().getAllReferences()) {
+            builder.append(reference).append('\n');
+        }
+
+        try {
+            InstructionSet instructionSet = new InstructionGenerator().emit(
+                    new LinkedSources(rootNode.getSourceFile(), rootNode.getStatements(), rootNode.getScopeStash()));
+            builder.append(new String(TargetFormat.X86.generatorClass.getAssembler(instructionSet)));
+        } catch (RuntimeException e) {
+            // files with imports or without main have no assembly on their own
+            builder.append("no assembly: ").append(e.getClass().getSimpleName());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return a source handing out one char per read, so every token spans reads
+     */
+    private static Readable singleChars(String content) {
+        StringReader reader = new StringReader(content);
+        return target -> {
+            int c = reader.read();
+            if (c < 0)
+                return -1;
+
+            target.put((char) c);
+            return 1;
+        };
+    }
+
+    private static List<Path> corpus() throws IOException {
+        try (Stream<Path> files = Files.walk(Main.TESTING_FOLDER.toPath())) {
+            return files.filter(path -> path.toString().endsWith(".ax")).sorted().toList();
+        }
+    }
+}
@@ -64,6 +64,21 @@ public enum Operator {
     public static final int MAX_PRIORITY = 13;
     public static final int MIN_PRIORITY = 1;
 
+    // operators by the ordinal of their token, prefix ones and the postfix or binary ones following an expression
+    private static final Operator[] PREFIX_OPERATORS = new Operator[TokenType.values().length];
+    private static final Operator[] INFIX_OPERATORS = new Operator[TokenType.values().length];
+
+    static {
+        for (Operator operator : VALUES) {
+            Operator[] operators = operator.unary && !operator.leftAssociated ? PREFIX_OPERATORS : INFIX_OPERATORS;
+            int ordinal = operator.type.ordinal();
+
+            // the lower priority is checked first, like AND shadowing EQUAL_EQUAL
+            if (operators[ordinal] == null || operators[ordinal].priority > operator.priority)
+                operators[ordinal] = operator;
+        }
+    }
+
     private final String text;
     private final TokenType type;
     private final int priority;
@@ -93,6 +108,20 @@ public enum Operator {
         return operators;
     }
 
+    /**
+     * @return the unary operator in front of an expression starting with the token, null if there is none
+     */
+    public static Operator getPrefixOperator(TokenType type) {
+        return type == null ? null : PREFIX_OPERATORS[type.ordinal()];
+    }
+
+    /**
+     * @return the postfix or binary operator of the token following an expression, null if there is none
+     */
+    public static Operator getInfixOperator(TokenType type) {
+        return type == null ? null : INFIX_OPERATORS[type.ordinal()];
+    }
+
     public String getText() {
         return text;
     }
@@ -0,0 +1,15 @@
+package axiol.parser.scope;
+
+import axiol.parser.scope.objects.Namespace;
+import axiol.parser.util.reference.Reference;
+import axiol.parser.util.reference.ReferenceType;
+
+/**
+ * Index key of a reference, made of the parts that never change after it was created.
+ */
+public record ReferenceKey(ReferenceType type, Namespace location, String name) {
+
+	public static ReferenceKey of(Reference reference) {
+		return new ReferenceKey(reference.getType(), reference.getLocation(), reference.getName());
+	}
+}
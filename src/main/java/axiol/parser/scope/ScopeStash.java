@@ -17,10 +17,16 @@ public class ScopeStash {
 	protected final Map<Reference, TokenPosition> firstReferencePosition;
 	protected final Map<String, Reference> importedReference;
 	protected final List<Reference> allReferences;
+	// all references but namespaces by key, in the order of allReferences
+	private final Map<ReferenceKey, List<Reference>> referenceIndex;
+	private int indexedCount;
+	// the copies the linker made of the references of imported files, with the reference they were copied from
+	private final Map<Reference, Reference> importedCopies;
 
 	private final Namespace namespaceRoot;
 	private final LinkedList<Reference> scopes;
-	private final ScopedReferenceMap referenceMap;
+	// namespace references by the symbol of their path
+	private final ScopedReferenceMap<Integer> referenceMap;
 
 	public int count;
 	protected int tempCount;
@@ -29,13 +35,15 @@ public class ScopeStash {
 		this.firstReferencePosition = new HashMap<>();
 		this.importedReference = new HashMap<>();
 		this.allReferences = new ArrayList<>();
+		this.referenceIndex = new HashMap<>();
+		this.importedCopies = new IdentityHashMap<>();
 
 		this.scopes = new LinkedList<>();
-		this.referenceMap = new ScopedReferenceMap();
+		this.referenceMap = new ScopedReferenceMap<>();
 		this.namespaceRoot = new Namespace();
 
 		Reference rootReference = createNamespaceReference(namespaceRoot);
-		this.referenceMap.insertNew("", rootReference);
+		this.referenceMap.insertNew(namespaceRoot.getSymbol(), rootReference);
 		this.scopes.add(rootReference);
 
 		this.functionScope = new FunctionScope(this);
@@ -46,23 +54,18 @@ public class ScopeStash {
 	}
 	
 	// skips ident id check bcs it contains unique ids!
-	public Reference containsReference(Reference reference) {
-		for (Reference current : this.allReferences) {
-			if (reference.getType() == ReferenceType.NAMESPACE)
-				break;
-			if(current.getType() == ReferenceType.NAMESPACE)
-				continue;
-
-			if (current.getType() != reference.getType())
+	public synchronized Reference containsReference(Reference reference) {
+		if (reference.getType() == ReferenceType.NAMESPACE)
+			return null;
+
+		this.updateReferenceIndex();
+		for (Reference current : referenceIndex.getOrDefault(ReferenceKey.of(reference), List.of())) {
+			// types are shared instances, so a reference is skipped only if it is the same one or a copy of it,
+			// or both are imports of references not resolved yet
+			if (current == reference || importedCopies.get(current) == reference)
 				continue;
-
-			if (!Objects.equals(current.getName(), reference.getName()))
-				continue;
-
-			if (!current.getLocation().equals(reference.getLocation()))
-				continue;
-
-			if (current.getValueType().equals(reference.getValueType()))
+			if (current.getValueType() == reference.getValueType() &&
+					(current.getValueType() == Type.NONE || current.getValueType() == Type.MERGED))
 				continue;
 
 			if (!Objects.equals(current.getIdent(), reference.getIdent()))
@@ -75,7 +78,25 @@ public class ScopeStash {
 		}
 		return null;
 	}
+
+	// references are only ever appended, the parts of the key are final
+	private void updateReferenceIndex() {
+		for (; indexedCount < allReferences.size(); indexedCount++) {
+			Reference reference = allReferences.get(indexedCount);
+			if (reference.getType() == ReferenceType.NAMESPACE)
+				continue;
+
+			referenceIndex.computeIfAbsent(ReferenceKey.of(reference), key -> new ArrayList<>()).add(reference);
+		}
+	}
 	
+	/**
+	 * Keeps that the reference was copied from one of an imported file, it is no duplicate of that one.
+	 */
+	public synchronized void addImportedCopy(Reference copy, Reference reference) {
+		importedCopies.put(copy, reference);
+	}
+
 	public FunctionScope getFunctionScope() {
 		return functionScope;
 	}
@@ -104,23 +125,51 @@ public class ScopeStash {
 
 	public void pushNamespace(String name) {
 		Namespace parent = scopes.getLast().getLocation();
-		Namespace child = new Namespace(parent, name);
+		Namespace child = parent.child(name);
 
 		Reference ref;
-		if (referenceMap.hasMangledName(child.getPath())) {
-			ref = referenceMap.getReference(child.getPath());
+		if (referenceMap.hasKey(child.getSymbol())) {
+			ref = referenceMap.getReference(child.getSymbol());
 		} else {
 			ref = createNamespaceReference(child);
-			referenceMap.insertNew(child.getPath(), ref);
+			referenceMap.insertNew(child.getSymbol(), ref);
 		}
 
 		scopes.add(ref);
 	}
 
+	/**
+	 * Enters a namespace reference created before, like the namespace of a deferred function body.
+	 */
+	public void pushNamespace(Reference namespaceReference) {
+		scopes.add(namespaceReference);
+	}
+
 	public void popNamespace() {
 		scopes.pollLast();
 	}
 
+	/**
+	 * @return the depth of the namespaces and local scopes entered, to go back to after a statement failed to parse
+	 */
+	public ScopeMark markScopes() {
+		return new ScopeMark(scopes.size(), localScope.getBlockDepth(), localScope.getLocalsDepth());
+	}
+
+	/**
+	 * Leaves the namespaces and local scopes entered since the mark, a statement that failed
+	 * to parse never got to leave them itself.
+	 */
+	public void resetScopes(ScopeMark mark) {
+		while (scopes.size() > mark.namespaceDepth()) {
+			scopes.pollLast();
+		}
+		localScope.resetDepth(mark.blockDepth(), mark.localsDepth());
+	}
+
+	public record ScopeMark(int namespaceDepth, int blockDepth, int localsDepth) {
+	}
+
 	public Namespace getNamespaceRoot() {
 		return namespaceRoot;
 	}
@@ -136,13 +185,14 @@ public class ScopeStash {
 	public Namespace getRelativeNamespace(Namespace base, Namespace path) {
 		Reference reference;
 		if (path.isRoot()) {
-			reference = referenceMap.getReference(base.getPath());
+			reference = referenceMap.getReference(base.getSymbol());
 		} else {
 			// Path is not root
 			if (base.isRoot()) {
-				reference = referenceMap.getReference(path.getPath());
+				reference = referenceMap.getReference(path.getSymbol());
 			} else {
-				reference = referenceMap.getReference(base.getPath() + "::" + path.getPath());
+				Namespace relative = base.find(path);
+				reference = relative == null ? null : referenceMap.getReference(relative.getSymbol());
 			}
 		}
 
@@ -154,16 +204,16 @@ public class ScopeStash {
 	}
 
 	public Namespace importNamespace(List<String> parts) {
-		Namespace namespace = new Namespace(this.namespaceRoot, String.join("::", parts));
+		Namespace namespace = this.namespaceRoot.resolve(String.join("::", parts));
 		Reference reference = createNamespaceReference(namespace);
-		referenceMap.insertNew(namespace.getPath(), reference);
+		referenceMap.insertNew(namespace.getSymbol(), reference);
 		return namespace;
 	}
 
 	public Namespace importNamespace(Namespace parts) {
-		Namespace namespace = new Namespace(this.namespaceRoot, String.join("::", parts.getParts()));
+		Namespace namespace = this.namespaceRoot.resolve(parts.getPath());
 		Reference reference = createNamespaceReference(namespace);
-		referenceMap.insertNew(namespace.getPath(), reference);
+		referenceMap.insertNew(namespace.getSymbol(), reference);
 		return namespace;
 	}
 
@@ -172,7 +222,8 @@ public class ScopeStash {
 			return getNamespaceRoot();
 		}
 
-		Reference ref = referenceMap.getReference(String.join("::", parts));
+		Namespace namespace = namespaceRoot.find(parts);
+		Reference ref = namespace == null ? null : referenceMap.getReference(namespace.getSymbol());
 
 		if (ref != null) {
 			return ref.getLocation();
@@ -2,27 +2,31 @@ package axiol.parser.scope;
 
 import axiol.parser.util.reference.Reference;
 
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 
-public class ScopedReferenceMap {
+/**
+ * References of a scope by key, the keys are built from {@link axiol.lexer.Identifiers}
+ * symbols by the {@link axiol.mangler.Mangler} instead of mangled names.
+ */
+public class ScopedReferenceMap<K> {
 
-    private final LinkedHashMap<String, Reference> referenceMap;
+    private final HashMap<K, Reference> referenceMap;
 
     public ScopedReferenceMap() {
-        referenceMap = new LinkedHashMap<>();
+        referenceMap = new HashMap<>();
     }
 
-    public Reference getReference(String mangled) {
-        return referenceMap.get(mangled);
+    public Reference getReference(K key) {
+        return referenceMap.get(key);
     }
 
-    public boolean hasMangledName(String mangled) {
-        return referenceMap.containsKey(mangled);
+    public boolean hasKey(K key) {
+        return referenceMap.containsKey(key);
     }
 
-    public Reference insertNew(String mangled, Reference reference) {
-        assert mangled != null && !mangled.isEmpty();
-        return referenceMap.put(mangled, reference);
+    public Reference insertNew(K key, Reference reference) {
+        assert key != null;
+        return referenceMap.put(key, reference);
     }
 
     public void clear() {
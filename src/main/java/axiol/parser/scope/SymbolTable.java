@@ -0,0 +1,98 @@
+package axiol.parser.scope;
+
+import axiol.parser.util.reference.Reference;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * References of nested scopes in a single map from key to the innermost binding, a lookup is one probe
+ * however deep the scopes are. every binding is kept in an undo log, popping a layer rewinds the log
+ * to where the layer started and puts the bindings it shadowed back.
+ */
+public class SymbolTable<K> {
+
+    private final HashMap<K, Binding<K>> bindings;
+    private final ArrayList<Binding<K>> undoLog;
+    // size of the undo log when each layer was pushed
+    private final ArrayList<Integer> layerStarts;
+
+    public SymbolTable() {
+        this.bindings = new HashMap<>();
+        this.undoLog = new ArrayList<>();
+        this.layerStarts = new ArrayList<>();
+    }
+
+    public void pushLayer() {
+        layerStarts.add(undoLog.size());
+    }
+
+    public void popLayer() {
+        int start = layerStarts.remove(layerStarts.size() - 1);
+        while (undoLog.size() > start) {
+            Binding<K> binding = undoLog.remove(undoLog.size() - 1);
+            if (binding.shadowed == null) {
+                bindings.remove(binding.key);
+            } else {
+                bindings.put(binding.key, binding.shadowed);
+            }
+        }
+    }
+
+    /**
+     * @return the layers pushed, the innermost one has the index depth - 1
+     */
+    public int getDepth() {
+        return layerStarts.size();
+    }
+
+    /**
+     * Binds the key in the innermost layer, a binding of the key in an outer layer is shadowed until the layer is popped.
+     */
+    public void put(K key, Reference reference) {
+        assert key != null;
+        Binding<K> binding = new Binding<>(key, reference, layerStarts.size() - 1, bindings.get(key));
+        bindings.put(key, binding);
+        undoLog.add(binding);
+    }
+
+    /**
+     * @return the innermost reference of the key
+     */
+    public Reference get(K key) {
+        Binding<K> binding = bindings.get(key);
+        return binding == null ? null : binding.reference;
+    }
+
+    /**
+     * @return the innermost reference of the key if it is bound in the given layer or one inside of it
+     */
+    public Reference getFrom(K key, int layer) {
+        Binding<K> binding = bindings.get(key);
+        return binding == null || binding.layer < layer ? null : binding.reference;
+    }
+
+    /**
+     * @return the reference of the key bound in exactly the given layer
+     */
+    public Reference getIn(K key, int layer) {
+        Binding<K> binding = bindings.get(key);
+        while (binding != null && binding.layer > layer) {
+            binding = binding.shadowed;
+        }
+        return binding == null || binding.layer != layer ? null : binding.reference;
+    }
+
+    public boolean hasKeyIn(K key, int layer) {
+        return this.getIn(key, layer) != null;
+    }
+
+    public void clear() {
+        bindings.clear();
+        undoLog.clear();
+        layerStarts.clear();
+    }
+
+    private record Binding<K>(K key, Reference reference, int layer, Binding<K> shadowed) {
+    }
+}
@@ -1,5 +1,7 @@
 package axiol.parser.scope.impl;
 
+import axiol.lexer.Identifiers;
+import axiol.mangler.FunctionKey;
 import axiol.mangler.Mangler;
 import axiol.parser.scope.*;
 import axiol.parser.scope.objects.Namespace;
@@ -7,67 +9,112 @@ import axiol.parser.statement.Parameter;
 import axiol.parser.util.reference.Reference;
 import axiol.parser.util.reference.ReferenceType;
 import axiol.types.Type;
-import axiol.utils.SuppliedStack;
 
 import java.util.List;
 
 public class FunctionScope extends ScopeReferenceStorage {
 
+    private static final int GLOBAL = 0;
+
     private final ScopeStash scopeStash;
-    private final SuppliedStack<FunctionScopeLayer> functionScope;
+    // functions by Mangler#functionKey, one layer per block, the first one is global
+    private final SymbolTable<FunctionKey> functions;
 
     public FunctionScope(ScopeStash scopeStash) {
         this.scopeStash = scopeStash;
-        this.functionScope = new SuppliedStack<>(FunctionScopeLayer::new);
+        this.functions = new SymbolTable<>();
+        this.functions.pushLayer();
     }
 
     @Override
     public void clear() {
-        functionScope.clear();
+        functions.clear();
     }
 
     @Override
     public void pushBlock() {
-        functionScope.push();
+        functions.pushLayer();
     }
 
     @Override
     public void popBlock() {
-        functionScope.pop();
+        functions.popLayer();
     }
 
-    public Reference addFunction(Type type, Namespace namespace, String name, List<Parameter> parameters) {
-        return functionScope.getLast().addFunction(type, namespace, name, parameters.stream().map(Parameter::getReference).toList());
+    public Reference addFunction(Type type, Namespace namespace, int name, List<Parameter> parameters) {
+        return this.addFunctionReference(type, namespace, name, parameters.stream().map(Parameter::getReference).toList());
     }
 
     public Reference importFunction(Reference reference) {
-        return functionScope.getLast().addImportedFunction(reference);
+        FunctionKey key = new FunctionKey(Mangler.variableKey(reference.getLocation(),
+                Identifiers.intern(reference.getName())), reference.getSignature());
+        if (functions.hasKeyIn(key, this.currentLayer())) {
+            return null;
+        }
+
+        reference.setIdentId(scopeStash.count++);
+        this.checkOverride(key);
+
+        functions.put(key, reference);
+        scopeStash.getAllReferences().add(reference);
+        return reference;
+    }
+
+    public Reference addFunctionReferenceParams(Type type, Namespace namespace, int name, List<Reference> parameters) {
+        return this.addFunctionReference(type, namespace, name, parameters);
+    }
+
+    private Reference addFunctionReference(Type returnType, Namespace namespace, int name, List<Reference> parameters) {
+        FunctionKey key = Mangler.functionKey(returnType, namespace, name, parameters);
+
+        if (functions.hasKeyIn(key, this.currentLayer())) {
+            return null;
+        }
+
+        String functionName = Identifiers.name(name);
+        Reference reference = new Reference(ReferenceType.FUNCTION, functionName, namespace, returnType);
+
+        reference.setIdent(Mangler.mangleFunction(returnType, namespace, functionName, parameters));
+        reference.setSignature(key.signature());
+        reference.setIdentId(scopeStash.count++);
+        this.checkOverride(key);
+
+        functions.put(key, reference);
+        scopeStash.getAllReferences().add(reference);
+        return reference;
     }
 
-    public Reference addFunctionReferenceParams(Type type, Namespace namespace, String name, List<Reference> parameters) {
-        return functionScope.getLast().addFunction(type, namespace, name, parameters);
+    private void checkOverride(FunctionKey key) {
+        if (this.currentLayer() != GLOBAL && functions.hasKeyIn(key, GLOBAL)) {
+            throw new RuntimeException("Function override");
+        }
     }
 
-    public Reference getFunctionBlocking(Namespace namespace, String name, Type returnType, List<Parameter> parameters) {
-        return functionScope.getLast().getFunctionBlocking(namespace, returnType, name, parameters.stream().map(Parameter::getReference).toList());
+    private int currentLayer() {
+        return functions.getDepth() - 1;
     }
 
-    public Reference importFunction(Namespace namespace, String name, List<Reference> parameters) {
+    public Reference getFunctionBlocking(Namespace namespace, int name, Type returnType, List<Parameter> parameters) {
+        return functions.getIn(Mangler.functionKey(returnType, namespace, name,
+                parameters.stream().map(Parameter::getReference).toList()), this.currentLayer());
+    }
+
+    public Reference importFunction(Namespace namespace, int name, List<Reference> parameters) {
         Reference reference = addFunctionReferenceParams(Type.MERGED, namespace, name, parameters);
         reference.setImported(true);
-        reference.setIdent(Mangler.mangleFunction(Type.MERGED, namespace, name, parameters));
+        reference.setIdent(Mangler.mangleFunction(Type.MERGED, namespace, Identifiers.name(name), parameters));
         return reference;
     }
 
-    public Reference getGlobalFunction(Namespace namespace, String name, List<Reference> parameters) {
-        return functionScope.getElements().getFirst().getFunction(namespace, name, parameters);
+    public Reference getGlobalFunction(Namespace namespace, int name, List<Reference> parameters) {
+        return functions.getIn(Mangler.functionKey(Type.MERGED, namespace, name, parameters), GLOBAL);
     }
 
-    public Reference getLocalFunction(Namespace namespace, String name, List<Reference> parameters) {
-        return functionScope.getLast().getFunction(namespace, name, parameters);
+    public Reference getLocalFunction(Namespace namespace, int name, List<Reference> parameters) {
+        return functions.getIn(Mangler.functionKey(Type.MERGED, namespace, name, parameters), this.currentLayer());
     }
 
-    public Reference getFunction(Namespace namespace, String name, List<Reference> parameters) {
+    public Reference getFunction(Namespace namespace, int name, List<Reference> parameters) {
         Reference reference;
         if ((reference = getLocalFunction(namespace, name, parameters)) != null) {
             return reference;
@@ -86,57 +133,4 @@ public class FunctionScope extends ScopeReferenceStorage {
 
         return getGlobalFunction(namespace, name, parameters);
     }
-
-    public class FunctionScopeLayer extends ScopedReferenceMap {
-
-        public Reference addFunction(Type returnType, Namespace namespace, String name, List<Reference> parameters) {
-            String mangledName = Mangler.mangleFunction(returnType, namespace, name, parameters);
-
-            if (this.hasMangledName(mangledName)) {
-                return null;
-            }
-
-            Reference reference = new Reference(ReferenceType.FUNCTION, name, namespace, returnType);
-
-            reference.setIdent(mangledName);
-            reference.setIdentId(scopeStash.count++);
-
-            FunctionScopeLayer global = functionScope.getElements().getFirst();
-            if (global != this && global.hasMangledName(mangledName)) {
-                throw new RuntimeException("Function override");
-            }
-
-            this.insertNew(mangledName, reference);
-            scopeStash.getAllReferences().add(reference);
-            return reference;
-        }
-
-        public Reference addImportedFunction(Reference reference) {
-            if (this.hasMangledName(reference.getIdent())) {
-                return null;
-            }
-
-            reference.setIdentId(scopeStash.count++);
-
-            FunctionScopeLayer global = functionScope.getElements().getFirst();
-            if (global != this && global.hasMangledName(reference.getIdent())) {
-                throw new RuntimeException("Function override");
-            }
-
-            this.insertNew(reference.getIdent(), reference);
-            scopeStash.getAllReferences().add(reference);
-            return reference;
-        }
-
-        public Reference getFunctionBlocking(Namespace namespace, Type type, String name, List<Reference> parameters) {
-            String mangledName = Mangler.mangleFunction(type, namespace, name, parameters);
-            return this.getReference(mangledName);
-        }
-
-        public Reference getFunction(Namespace namespace, String name, List<Reference> parameters) {
-            String mangledName = Mangler.mangleFunction(Type.MERGED, namespace, name, parameters);
-            return this.getReference(mangledName);
-        }
-
-    }
 }
@@ -1,127 +1,134 @@
 package axiol.parser.scope.impl;
 
+import axiol.lexer.Identifiers;
 import axiol.mangler.Mangler;
 import axiol.parser.scope.*;
 import axiol.parser.scope.objects.Namespace;
 import axiol.parser.util.reference.Reference;
 import axiol.parser.util.reference.ReferenceType;
 import axiol.types.Type;
-import axiol.utils.SuppliedStack;
 
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
 
 public class LocalScope extends ScopeReferenceStorage {
     private final ScopeStash scopeStash;
-    private final LinkedList<SuppliedStack<LocalScopeLayer>> localScope;
+    // locals by Mangler#variableKey, one layer per pushLocals
+    private final SymbolTable<Long> variables;
+    // the first layer of every block
+    private final ArrayList<Integer> blockStarts;
 
     public LocalScope(ScopeStash scopeStash) {
         this.scopeStash = scopeStash;
-        this.localScope = new LinkedList<>();
+        this.variables = new SymbolTable<>();
+        this.blockStarts = new ArrayList<>();
     }
 
     @Override
     public void clear() {
-        localScope.clear();
+        variables.clear();
+        blockStarts.clear();
     }
 
     @Override
     public void pushBlock() {
-        localScope.addLast(new SuppliedStack<>(LocalScopeLayer::new));
+        blockStarts.add(variables.getDepth());
+        variables.pushLayer();
     }
 
     @Override
     public void popBlock() {
-        localScope.removeLast();
+        int start = blockStarts.remove(blockStarts.size() - 1);
+        while (variables.getDepth() > start) {
+            variables.popLayer();
+        }
     }
 
     public void pushLocals() {
-        localScope.getLast().push();
+        variables.pushLayer();
     }
 
     public void popLocals() {
-        localScope.getLast().pop();
+        variables.popLayer();
     }
 
-    public Reference importVariable(Namespace namespace, String name) {
-        Reference reference = addLocalVariable(namespace, Type.NONE, false, name);
-        reference.setImported(true);
-        reference.setIdent(Mangler.mangleVariable(namespace, name));
-        return reference;
-    }
-
-    public Reference importVariable(Reference reference) {
-        return localScope.getLast().getLast().addImportedLocal(reference);
+    public int getBlockDepth() {
+        return blockStarts.size();
     }
 
-    public Reference addLocalVariable(Namespace namespace, Type valueType, boolean constant, String name) {
-        return localScope.getLast().getLast().addLocal(valueType, namespace, constant, name);
+    public int getLocalsDepth() {
+        return variables.getDepth() - blockStarts.get(blockStarts.size() - 1);
     }
 
-    public Reference getVariable(Namespace namespace, String name) {
-        Iterator<SuppliedStack<LocalScopeLayer>> iter = localScope.descendingIterator();
-
-        while (iter.hasNext()) {
-            Iterator<LocalScopeLayer> iter2 = iter.next().getElements().descendingIterator();
-            while (iter2.hasNext()) {
-                Reference reference = iter2.next().getLocal(namespace, name);
-                if (reference != null) {
-                    return reference;
-                }
-            }
+    /**
+     * Pops blocks and then locals of the innermost remaining block until both are back at the given depths.
+     */
+    public void resetDepth(int blockDepth, int localsDepth) {
+        while (blockStarts.size() > blockDepth) {
+            this.popBlock();
+        }
+        while (this.getLocalsDepth() > localsDepth) {
+            variables.popLayer();
         }
+    }
 
-        return null;
+    public Reference importVariable(Namespace namespace, int name) {
+        Reference reference = addLocalVariable(namespace, Type.NONE, false, name);
+        reference.setImported(true);
+        reference.setIdent(Mangler.mangleVariable(namespace, Identifiers.name(name)));
+        return reference;
     }
 
-    public Reference getLocal(Namespace namespace, String name) {
-        Iterator<LocalScopeLayer> iter = localScope.getLast().getElements().descendingIterator();
-        while (iter.hasNext()) {
-            Reference reference = iter.next().getLocal(namespace, name);
-            if (reference != null) {
-                return reference;
-            }
+    public Reference importVariable(Reference reference) {
+        long key = Mangler.variableKey(reference.getLocation(), Identifiers.intern(reference.getName()));
+        if (variables.hasKeyIn(key, variables.getDepth() - 1)) {
+            return null;
         }
 
-        return null;
+        reference.setIdentId(scopeStash.count++);
+        variables.put(key, reference);
+        scopeStash.getAllReferences().add(reference);
+        return reference;
     }
 
-    public class LocalScopeLayer extends ScopedReferenceMap {
-
-        public Reference addLocal(Type valueType, Namespace namespace, boolean constant, String name) {
-            String mangledName = Mangler.mangleVariable(namespace, name);
-            if (this.hasMangledName(mangledName)) {
-                return null;
-            }
+    /**
+     * Puts a variable added before back into the current scope, like the parameters of a deferred function body.
+     */
+    public void restoreVariable(Reference reference) {
+        variables.put(Mangler.variableKey(reference.getLocation(), Identifiers.intern(reference.getName())), reference);
+    }
 
-            Reference reference = new Reference(ReferenceType.VAR, name, namespace, valueType);
-            reference.setConstant(constant);
-            reference.setIdentId(scopeStash.count++);
-            reference.setIdent(mangledName);
-            insertNew(mangledName, reference);
-            scopeStash.getAllReferences().add(reference);
-            return reference;
+    public Reference addLocalVariable(Namespace namespace, Type valueType, boolean constant, int name) {
+        long key = Mangler.variableKey(namespace, name);
+        if (variables.hasKeyIn(key, variables.getDepth() - 1)) {
+            return null;
         }
 
-        public Reference addImportedLocal(Reference reference) {
-            if (this.hasMangledName(reference.getIdent())) {
-                return null;
-            }
+        String variableName = Identifiers.name(name);
+        Reference reference = new Reference(ReferenceType.VAR, variableName, namespace, valueType);
+        reference.setConstant(constant);
+        reference.setIdentId(scopeStash.count++);
+        reference.setIdent(Mangler.mangleVariable(namespace, variableName));
+        variables.put(key, reference);
+        scopeStash.getAllReferences().add(reference);
+        return reference;
+    }
+
+    public Reference getVariable(Namespace namespace, int name) {
+        return checkLocation(variables.get(Mangler.variableKey(namespace, name)), namespace);
+    }
 
-            reference.setIdentId(scopeStash.count++);
-            insertNew(reference.getIdent(), reference);
-            scopeStash.getAllReferences().add(reference);
-            return reference;
-        }
+    /**
+     * @return the variable if it was added in the current block
+     */
+    public Reference getLocal(Namespace namespace, int name) {
+        int blockStart = blockStarts.get(blockStarts.size() - 1);
+        return checkLocation(variables.getFrom(Mangler.variableKey(namespace, name), blockStart), namespace);
+    }
 
-        public Reference getLocal(Namespace namespace, String name) {
-            String mangledName = Mangler.mangleVariable(namespace, name);
-            Reference reference = this.getReference(mangledName);
-            if (reference != null && reference.getLocation() != namespace) {
-                throw new RuntimeException("scope miss matched: (%s) (%s)".formatted(reference, namespace));
-            }
-            return reference;
+    private static Reference checkLocation(Reference reference, Namespace namespace) {
+        if (reference != null && reference.getLocation() != namespace) {
+            throw new RuntimeException("scope miss matched: (%s) (%s)".formatted(reference, namespace));
         }
-
+        return reference;
     }
 }
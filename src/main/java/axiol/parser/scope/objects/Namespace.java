@@ -1,37 +1,150 @@
 package axiol.parser.scope.objects;
 
-import java.util.Arrays;
+import axiol.lexer.Identifiers;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A node in a tree of namespaces, every path exists once in a tree so namespaces of the same tree
+ * are compared by reference. the path, hash and id are fixed when the node is created.
+ * a {@link axiol.parser.scope.ScopeStash} owns the tree of its file.
+ */
 public class Namespace {
 
-    private final String[] parts;
+    private static final String SEPARATOR = "::";
+
+    private final Namespace root;
+    private final Namespace parent;
+    private final String name;
+    private final String path;
+    private final int hash;
+    private final int id;
+    private final int depth;
 
+    private Map<String, Namespace> children;
+    // ids of the tree, only counted on the root
+    private int nodeCount;
+    private int symbol = Identifiers.NO_SYMBOL;
+
+    /**
+     * Creates the root of a new tree.
+     */
     public Namespace() {
-        // Empty namespace
-        this.parts = new String[0];
+        this.root = this;
+        this.parent = null;
+        this.name = "";
+        this.path = "";
+        this.hash = path.hashCode();
+        this.id = nodeCount++;
+        this.depth = 0;
+    }
+
+    private Namespace(Namespace parent, String name, int id) {
+        this.root = parent.root;
+        this.parent = parent;
+        this.name = name;
+        this.path = parent.isRoot() ? name : parent.path + SEPARATOR + name;
+        this.hash = path.hashCode();
+        this.id = id;
+        this.depth = parent.depth + 1;
+    }
+
+    /**
+     * @return the namespace with the name inside this one, created on first use
+     */
+    public Namespace child(String name) {
+        synchronized (root) {
+            if (children == null)
+                children = new HashMap<>();
+
+            Namespace child = children.get(name);
+            if (child == null) {
+                child = new Namespace(this, name, root.nodeCount++);
+                children.put(name, child);
+            }
+            return child;
+        }
+    }
+
+    /**
+     * @return the namespace with the name inside this one, or null if it was never created
+     */
+    public Namespace findChild(String name) {
+        synchronized (root) {
+            return children == null ? null : children.get(name);
+        }
+    }
+
+    /**
+     * @return the namespace at the path relative to this one, like "a::b", created on first use
+     */
+    public Namespace resolve(String path) {
+        Namespace namespace = this;
+        if (path.isEmpty())
+            return namespace;
+
+        for (String part : path.split(SEPARATOR)) {
+            namespace = namespace.child(part);
+        }
+        return namespace;
     }
 
-    public Namespace(String pathname) {
-        if (pathname.isEmpty()) {
-            this.parts = new String[0];
-        } else {
-            this.parts = pathname.split("::");
+    /**
+     * @return the namespace at the parts relative to this one, or null if it was never created
+     */
+    public Namespace find(List<String> parts) {
+        Namespace namespace = this;
+        for (int i = 0; i < parts.size() && namespace != null; i++) {
+            namespace = namespace.findChild(parts.get(i));
         }
+        return namespace;
     }
 
-    public Namespace(Namespace parent, String name) {
-        this.parts = new String[parent.parts.length + 1];
+    /**
+     * @return the namespace at the path of the given one relative to this one, which may be of another tree,
+     * or null if it was never created
+     */
+    public Namespace find(Namespace path) {
+        if (path.isRoot())
+            return this;
 
-        System.arraycopy(parent.parts, 0, parts, 0, parent.parts.length);
-        this.parts[parent.parts.length] = name;
+        Namespace parent = this.find(path.parent);
+        return parent == null ? null : parent.findChild(path.name);
     }
 
     public boolean isRoot() {
-        return parts.length == 0;
+        return parent == null;
+    }
+
+    public Namespace getParent() {
+        return parent;
+    }
+
+    public String getName() {
+        return name;
     }
 
     public String getPath() {
-        return String.join("::", parts);
+        return path;
+    }
+
+    /**
+     * @return a number unique in the tree of the namespace, the root has 0
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return the {@link Identifiers} symbol of the path
+     */
+    public int getSymbol() {
+        if (symbol == Identifiers.NO_SYMBOL)
+            symbol = Identifiers.intern(path);
+
+        return symbol;
     }
 
     @Override
@@ -39,23 +152,28 @@ public class Namespace {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Namespace namespace = (Namespace) o;
-        return Arrays.equals(parts, namespace.parts);
+        // only namespaces of different trees have the same path as other instances
+        return root != namespace.root && hash == namespace.hash && path.equals(namespace.path);
     }
 
     public String[] getParts() {
+        String[] parts = new String[depth];
+        for (Namespace namespace = this; !namespace.isRoot(); namespace = namespace.parent) {
+            parts[namespace.depth - 1] = namespace.name;
+        }
         return parts;
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(parts);
+        return hash;
     }
 
     @Override
     public String toString() {
-        if (parts.length == 0)
+        if (isRoot())
             return "{ count: 0, parts: [] }";
 
-        return "{ count: " + parts.length + ", parts: [\"" + String.join("\", \"", parts) + "\"] }";
+        return "{ count: " + depth + ", parts: [\"" + String.join("\", \"", getParts()) + "\"] }";
     }
-}
\ No newline at end of file
+}
@@ -10,13 +10,16 @@ import axiol.parser.util.reference.Reference;
 import axiol.types.Type;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 public class FunctionStatement extends Statement {
 
     private final String name;
     private final Accessibility[] accessibility;
     private final List<Parameter> parameters;
-    private final BodyStatement bodyStatement;
+    private BodyStatement bodyStatement;
+    // parses the body on first access, set if the body was skipped while parsing
+    private Supplier<BodyStatement> deferredBody;
     private final Type returnType;
 
     private final Reference reference;
@@ -32,6 +35,12 @@ public class FunctionStatement extends Statement {
         this.position = position;
     }
 
+    public FunctionStatement(String name, Accessibility[] accessibility, List<Parameter> parameters, Supplier<BodyStatement> deferredBody,
+                             Type returnType, Reference reference, TokenPosition position) {
+        this(name, accessibility, parameters, (BodyStatement) null, returnType, reference, position);
+        this.deferredBody = deferredBody;
+    }
+
     private final TokenPosition position;
 
     @Override
@@ -41,7 +50,7 @@ public class FunctionStatement extends Statement {
 
     @Override
     public List<Statement> childStatements() {
-        return List.of(bodyStatement);
+        return List.of(this.getBodyStatement());
     }
 
     @Override
@@ -58,10 +67,18 @@ public class FunctionStatement extends Statement {
         return parameters;
     }
 
-    public BodyStatement getBodyStatement() {
+    public synchronized BodyStatement getBodyStatement() {
+        if (deferredBody != null) {
+            bodyStatement = deferredBody.get();
+            deferredBody = null;
+        }
         return bodyStatement;
     }
 
+    public synchronized boolean isBodyParsed() {
+        return deferredBody == null;
+    }
+
     public Type getReturnType() {
         return returnType;
     }
@@ -0,0 +1,62 @@
+package axiol.parser.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Decodes a memory mapped source file chunk by chunk, so the file content
+ * never has to exist as one big string.
+ */
+public class MappedSourceReader implements Readable, Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer bytes;
+    private final CharsetDecoder decoder;
+
+    private boolean flushed;
+
+    private MappedSourceReader(FileChannel channel, ByteBuffer bytes) {
+        this.channel = channel;
+        this.bytes = bytes;
+        this.decoder = StandardCharsets.UTF_8.newDecoder();
+    }
+
+    public static MappedSourceReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        return new MappedSourceReader(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+
+    @Override
+    public int read(CharBuffer target) throws CharacterCodingException {
+        if (flushed)
+            return -1;
+
+        int before = target.position();
+
+        CoderResult result = decoder.decode(bytes, target, true);
+        if (result.isError())
+            result.throwException();
+
+        if (!bytes.hasRemaining() && result.isUnderflow()) {
+            result = decoder.flush(target);
+            flushed = result.isUnderflow();
+        }
+
+        int read = target.position() - before;
+        return read == 0 && flushed ? -1 : read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -1,9 +1,18 @@
 package axiol.parser.util;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public class SourceFile {
 
+    // smaller files are read into the heap, mapping them costs more than copying their bytes
+    private static final long MAP_THRESHOLD = 1 << 16;
+
     private final File folder;
     private final String fileName;
     private final String content;
@@ -29,4 +38,58 @@ public class SourceFile {
     public File asFile() {
         return new File(folder, fileName);
     }
+
+    /**
+     * Reads a source like the parser expects it, decoded as utf-8 in one go with every line ended by '\n'.
+     * large files are mapped, so their bytes are decoded straight out of the page cache.
+     */
+    public static String readContent(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            ByteBuffer bytes;
+            if (size >= MAP_THRESHOLD) {
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                bytes = ByteBuffer.allocate((int) size);
+                while (bytes.hasRemaining()) {
+                    if (channel.read(bytes) < 0)
+                        break;
+                }
+                bytes.flip();
+            }
+            return normalizeLines(StandardCharsets.UTF_8.decode(bytes).toString());
+        }
+    }
+
+    /**
+     * Ends every line with '\n', on the line breaks a {@link java.util.Scanner} reads lines by.
+     * sources already in that form are returned as they are.
+     */
+    static String normalizeLines(String content) {
+        boolean normalized = content.isEmpty() || content.charAt(content.length() - 1) == '\n';
+        for (int index = 0; normalized && index < content.length(); index++) {
+            char c = content.charAt(index);
+            normalized = c != '\r' && c != '\u2028' && c != '\u2029' && c != '\u0085';
+        }
+        if (normalized)
+            return content;
+
+        StringBuilder builder = new StringBuilder(content.length() + 1);
+        for (int index = 0; index < content.length(); index++) {
+            char c = content.charAt(index);
+            switch (c) {
+                case '\r' -> {
+                    builder.append('\n');
+                    if (index + 1 < content.length() && content.charAt(index + 1) == '\n')
+                        index++;
+                }
+                case '\u2028', '\u2029', '\u0085' -> builder.append('\n');
+                default -> builder.append(c);
+            }
+        }
+        if (builder.charAt(builder.length() - 1) != '\n')
+            builder.append('\n');
+        return builder.toString();
+    }
 }
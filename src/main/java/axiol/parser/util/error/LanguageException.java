@@ -1,9 +1,8 @@
 package axiol.parser.util.error;
 
+import axiol.lexer.LineIndex;
 import axiol.lexer.Token;
 
-import java.util.List;
-
 public class LanguageException extends IllegalStateException {
 
     // file
@@ -50,9 +49,16 @@ public class LanguageException extends IllegalStateException {
     }
 
     public void throwError() {
+        System.err.println(this.getDiagnostic());
+        throw this;
+    }
+
+    /**
+     * @return the error as it is printed, with the position and the highlighted line if there is one
+     */
+    public String getDiagnostic() {
         if (this.content == null && position == null) {
-            System.err.println(" | " + message);
-            throw this;
+            return " | " + message;
         }
 
         StringBuilder errorMessage = new StringBuilder();
@@ -67,9 +73,7 @@ public class LanguageException extends IllegalStateException {
 
         appendHighlighter(errorMessage);
 
-        System.err.println(errorMessage);
-
-        throw this;
+        return errorMessage.toString();
     }
 
     void appendHighlighter(StringBuilder stringBuilder) {
@@ -84,8 +88,11 @@ public class LanguageException extends IllegalStateException {
         String errPadding = " ".repeat(errorStart);
 
         if (content != null) {
-            List<String> lines = content.lines().toList();
-            String errString = lines.get(errorLine - 1);
+            // the index of the tokens the position came from, so a file with many errors is only indexed once
+            LineIndex lineIndex = position.getLineIndex() != null && position.getLineIndex().getContent() == content
+                    ? position.getLineIndex()
+                    : LineIndex.of(content);
+            String errString = lineIndex.lineText(errorLine);
 
             stringBuilder.append('\n').append("%s |".formatted(numPadding)).append('\n');
             stringBuilder.append("%s | %s\n".formatted(numFormat.formatted(errorLine), errString));
@@ -0,0 +1,32 @@
+package axiol.parser.util.error;
+
+import java.util.List;
+
+/**
+ * All syntax errors of one parse, printed together so a file with many errors needs a single build to show them.
+ */
+public class SyntaxErrorsException extends LanguageException {
+
+    private static final long serialVersionUID = 1L;
+
+    // the errors are only printed where they were found, they are not serialized with the exception
+    private final transient List<LanguageException> errors;
+
+    public SyntaxErrorsException(List<LanguageException> errors) {
+        super("%d syntax errors", errors.size());
+        this.errors = List.copyOf(errors);
+    }
+
+    @Override
+    public String getDiagnostic() {
+        StringBuilder diagnostic = new StringBuilder();
+        for (LanguageException error : errors) {
+            diagnostic.append(error.getDiagnostic()).append('\n');
+        }
+        return diagnostic.append(super.getDiagnostic()).toString();
+    }
+
+    public List<LanguageException> getErrors() {
+        return errors;
+    }
+}
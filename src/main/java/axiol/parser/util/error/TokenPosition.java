@@ -1,19 +1,56 @@
 package axiol.parser.util.error;
 
+import axiol.lexer.LineIndex;
+
 public class TokenPosition {
 
-    private final Position start, end;
+    // set for positions of tokens, which are only resolved into lines and columns once they are asked for
+    private final LineIndex lineIndex;
+    private final int offset;
+    private final int length;
+
+    private Position start, end;
 
     public TokenPosition(Position start, Position end) {
+        this.lineIndex = null;
+        this.offset = -1;
+        this.length = 0;
         this.start = start;
         this.end = end;
     }
 
+    /**
+     * The position of a token at the offset, its end is on the line of its start like the end of every token.
+     */
+    public TokenPosition(LineIndex lineIndex, int offset, int length) {
+        this.lineIndex = lineIndex;
+        this.offset = offset;
+        this.length = length;
+    }
+
     public Position getEnd() {
+        if (end == null) {
+            Position start = this.getStart();
+            end = new Position(start.line(), start.column() + length);
+        }
         return end;
     }
 
     public Position getStart() {
+        if (start == null) {
+            start = lineIndex.positionOf(offset);
+        }
         return start;
     }
+
+    /**
+     * @return the index of the source the position is in, null if it was not created from an offset
+     */
+    public LineIndex getLineIndex() {
+        return lineIndex;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
 }
@@ -17,6 +17,8 @@ public class Reference {
 
     private String ident;
     private int identId;
+    // type keys of the return and parameter types, only set for functions
+    private int[] signature;
 
     private boolean imported;
     private boolean exported;
@@ -111,6 +113,14 @@ public class Reference {
         return constant;
     }
 
+    public int[] getSignature() {
+        return signature;
+    }
+
+    public void setSignature(int[] signature) {
+        this.signature = signature;
+    }
+
     public void setIdent(String ident) {
         this.ident = ident;
     }
@@ -1,43 +1,83 @@
 package axiol.parser.util.stream;
 
+import axiol.lexer.Identifiers;
 import axiol.lexer.Token;
+import axiol.lexer.TokenSequence;
 import axiol.lexer.TokenType;
 import axiol.parser.util.SourceFile;
 import axiol.parser.util.error.TokenPosition;
 
-import java.util.List;
-
 public class TokenStream {
 
+    // tokens behind the current one that stay accessible through prev()
+    private static final int LOOK_BEHIND = 1;
+
     private final SourceFile sourceFile;
-    private final List<Token> tokens;
+    private final TokenSequence tokens;
     private int index;
 
-    public TokenStream(SourceFile sourceFile, List<Token> tokens) {
+    // last created token view, the parser asks for the same token multiple times in a row
+    private Token view;
+    private int viewIndex = -1;
+
+    public TokenStream(SourceFile sourceFile, TokenSequence tokens) {
+        this(sourceFile, tokens, 0);
+    }
+
+    public TokenStream(SourceFile sourceFile, TokenSequence tokens, int index) {
         this.sourceFile = sourceFile;
         this.tokens = tokens;
-        this.index = 0;
+        this.index = index;
     }
 
     public boolean hasMoreTokens() {
-        if (tokens.size() <= index)
-            return false;
-
-        Token token = tokens.get(index);
-        if (token == null)
+        if (!tokens.hasToken(index))
             return false;
 
-        return token.getType() != TokenType.EOF;
+        return !tokens.matches(index, TokenType.EOF);
     }
 
     public boolean matches(TokenType type) {
-        Token current = this.current();
-        return current != null && current.getType() == type;
+        return hasMoreTokens() && tokens.matches(index, type);
     }
 
     public boolean matchesValue(String value) {
-        Token current = this.current();
-        return current != null && current.getValue().equals(value);
+        return hasMoreTokens() && tokens.textEquals(index, value);
+    }
+
+    public TokenType currentType() {
+        return hasMoreTokens() ? tokens.getType(index) : null;
+    }
+
+    public TokenType peakType(int amount) {
+        return hasMoreTokens() ? tokens.getType(index + amount) : null;
+    }
+
+    public String currentValue() {
+        return hasMoreTokens() ? tokens.getText(index) : null;
+    }
+
+    public int currentSymbol() {
+        return hasMoreTokens() ? tokens.getSymbol(index) : Identifiers.NO_SYMBOL;
+    }
+
+    public int peakSymbol(int amount) {
+        return hasMoreTokens() ? tokens.getSymbol(index + amount) : Identifiers.NO_SYMBOL;
+    }
+
+    /**
+     * @return the flags of the current number token as decoded by the lexer
+     */
+    public int currentNumberFlags() {
+        return hasMoreTokens() ? tokens.getNumberFlags(index) : 0;
+    }
+
+    public long currentNumber() {
+        return hasMoreTokens() ? tokens.getNumber(index) : 0;
+    }
+
+    public long currentNumberHigh() {
+        return hasMoreTokens() ? tokens.getNumberHigh(index) : 0;
     }
 
     public TokenPosition currentPosition() {
@@ -45,25 +85,42 @@ public class TokenStream {
     }
 
     public Token current() {
-        return hasMoreTokens() ? tokens.get(index) : null;
+        return hasMoreTokens() ? view(index) : null;
     }
 
     public Token prev() {
-        return hasMoreTokens() ? tokens.get(index - 1) : null;
+        return hasMoreTokens() ? view(index - 1) : null;
     }
 
     public Token peak(int amount) {
-        return hasMoreTokens() ? tokens.get(index + amount) : null;
+        return hasMoreTokens() ? view(index + amount) : null;
     }
 
     public void advance() {
         this.index++;
+        this.tokens.release(index - LOOK_BEHIND);
     }
 
     public void reverse() {
         this.index--;
     }
 
+    private Token view(int position) {
+        if (viewIndex != position) {
+            view = tokens.getToken(position);
+            viewIndex = position;
+        }
+        return view;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public TokenSequence getTokens() {
+        return tokens;
+    }
+
     public SourceFile getSourceFile() {
         return sourceFile;
     }
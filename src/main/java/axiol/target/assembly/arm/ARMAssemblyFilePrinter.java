@@ -32,12 +32,12 @@ public class ARMAssemblyFilePrinter extends AssemblyFilePrinter {
         }
 
         source.append(".section .text").append(NEXT_LINE);
-        source.append(".global _start").append(NEXT_LINE);
-        source.append(NEXT_LINE);
     }
 
     @Override
     public void createEntryPoint(String main) {
+        source.append(".global _start").append(NEXT_LINE);
+        source.append(NEXT_LINE);
         source.append("_start:").append(NEXT_LINE);
         source.append(TAB).append("BL %s".formatted(main)).append(NEXT_LINE);
         source.append(TAB).append("MOV R0, R0").append(NEXT_LINE);
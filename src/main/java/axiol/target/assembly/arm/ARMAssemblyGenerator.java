@@ -29,6 +29,8 @@ public class ARMAssemblyGenerator extends AssemblyGenerator<ARMAssemblyProgramEl
 
     @Override
     public byte[] getAssembler(InstructionSet instructions) {
+        // the strings of an earlier program are not part of this one
+        this.reset();
         AssemblyEmitContext context = new AssemblyEmitContext();
 
         InstructionReference main = null;
@@ -70,13 +72,14 @@ public class ARMAssemblyGenerator extends AssemblyGenerator<ARMAssemblyProgramEl
             }
         }
 
-        if (main == null) {
+        if (main == null && !instructions.isModule()) {
             throw new RuntimeException("Main function was undefined");
         }
 
         AssemblyFilePrinter assemblyFilePrinter = new ARMAssemblyFilePrinter();
         assemblyFilePrinter.init(64); // todo change in future
-        assemblyFilePrinter.createEntryPoint(main.toSimpleString());
+        if (!instructions.isModule())
+            assemblyFilePrinter.createEntryPoint(main.toSimpleString());
         assemblyFilePrinter.createCodeSection(context.build());
         assemblyFilePrinter.createDataSection(createNullTerminatedStrings());
 
@@ -229,6 +232,7 @@ public class ARMAssemblyGenerator extends AssemblyGenerator<ARMAssemblyProgramEl
 
     @Override
     public void reset() {
-
+        globalStrings.clear();
+        labelStrings.clear();
     }
 }
@@ -32,12 +32,12 @@ public class X86AssemblyFilePrinter extends AssemblyFilePrinter {
         }
 
         source.append("section .text").append(NEXT_LINE);
-        source.append("global _start").append(NEXT_LINE);
-        source.append(NEXT_LINE);
     }
 
     @Override
     public void createEntryPoint(String main) {
+        source.append("global _start").append(NEXT_LINE);
+        source.append(NEXT_LINE);
         source.append("_start:").append(NEXT_LINE);
         source.append(TAB).append("call %s".formatted(main)).append(NEXT_LINE);
         source.append(TAB).append("mov rdi, rax").append(NEXT_LINE);
@@ -32,6 +32,8 @@ public class X86AssemblyGenerator extends AssemblyGenerator<X86AssemblyProgramEl
 
     @Override
     public byte[] getAssembler(InstructionSet instructions) {
+        // the strings of an earlier program are not part of this one
+        this.reset();
         AssemblyEmitContext context = new AssemblyEmitContext();
 
         InstructionReference main = null;
@@ -73,13 +75,14 @@ public class X86AssemblyGenerator extends AssemblyGenerator<X86AssemblyProgramEl
             }
         }
 
-        if (main == null) {
+        if (main == null && !instructions.isModule()) {
             throw new RuntimeException("Main function was undefined");
         }
 
         AssemblyFilePrinter assemblyFilePrinter = new X86AssemblyFilePrinter();
         assemblyFilePrinter.init(64); // todo change in future
-        assemblyFilePrinter.createEntryPoint(main.toSimpleString());
+        if (!instructions.isModule())
+            assemblyFilePrinter.createEntryPoint(main.toSimpleString());
         assemblyFilePrinter.createCodeSection(context.build());
         assemblyFilePrinter.createDataSection(createNullTerminatedStrings());
 
@@ -844,6 +847,7 @@ public class X86AssemblyGenerator extends AssemblyGenerator<X86AssemblyProgramEl
 
     @Override
     public void reset() {
-
+        globalStrings.clear();
+        labelStrings.clear();
     }
 }
@@ -1,11 +1,26 @@
 package axiol.types;
 
+import axiol.lexer.Identifiers;
 import axiol.lexer.Token;
 
-import java.util.Objects;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * A value type, every array and pointer type exists once: {@link #derive} returns the canonical instance
+ * for a combination of element type, depths and varargs, so types are compared by reference.
+ */
 public class Type {
 
+    private static final String BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+    private static final String HEX = "0123456789abcdef";
+
+    private static final AtomicInteger IDS = new AtomicInteger();
+    // the canonical types that are not an element type themselves
+    private static final Map<Shape, Type> DERIVED = new ConcurrentHashMap<>();
+
     public static final Type STRING =  new Type("str", 1, 0, false, 8, false, false, true);
     public static final Type CHAR =    new Type("u8",     0, 0, false, 8, false, false, true);
     public static final Type BOOLEAN = new Type("u8",     0, 0, false, 8, false, false, true);
@@ -46,6 +61,22 @@ public class Type {
             NONE, VOID, U0,
     };
 
+    // ids of the types above, the ids after them are counted again once the derived types are cleared
+    private static final int CONSTANT_IDS = IDS.get();
+
+    // the first type of ALL wins if multiple types share a name
+    private static final Map<Integer, Type> TYPES_BY_SYMBOL = new HashMap<>();
+
+    static {
+        for (Type type : ALL) {
+            TYPES_BY_SYMBOL.putIfAbsent(Identifiers.intern(type.name), type);
+        }
+    }
+
+    // the element type the type was derived from, itself for the element types
+    private final Type base;
+    private final int id;
+
     private final String name;
     private final int arrayDepth;
 
@@ -58,6 +89,9 @@ public class Type {
     private final boolean floating;
     private final boolean unsigned;
 
+    // filled on first use, equal for every thread computing it
+    private String mangledName;
+
     public Type(String name, int arrayDepth, int pointerDepth, boolean varargs, int bitSize,
                 boolean big, boolean floating, boolean unsigned) {
 
@@ -69,49 +103,129 @@ public class Type {
         this.big = big;
         this.floating = floating;
         this.unsigned = unsigned;
+        this.base = this;
+        this.id = IDS.getAndIncrement();
     }
 
-    public Type(Type type, int arrayDepth, int pointerDepth, boolean varargs) {
-        this.name = type.name;
+    private Type(Type base, int arrayDepth, int pointerDepth, boolean varargs) {
+        this.name = base.name;
         this.arrayDepth = arrayDepth;
         this.pointerDepth = pointerDepth;
-        this.bitSize = type.bitSize;
-        this.big = type.big;
-        this.floating = type.floating;
-        this.unsigned = type.unsigned;
+        this.bitSize = base.bitSize;
+        this.big = base.big;
+        this.floating = base.floating;
+        this.unsigned = base.unsigned;
         this.varargs = varargs;
+        this.base = base;
+        this.id = IDS.getAndIncrement();
+    }
+
+    /**
+     * @return the canonical type with the element type of this one and the given depths
+     */
+    public Type derive(int arrayDepth, int pointerDepth, boolean varargs) {
+        if (arrayDepth == base.arrayDepth && pointerDepth == base.pointerDepth && varargs == base.varargs)
+            return base;
+
+        return DERIVED.computeIfAbsent(new Shape(base, arrayDepth, pointerDepth, varargs),
+                shape -> new Type(shape.base(), shape.arrayDepth(), shape.pointerDepth(), shape.varargs()));
+    }
+
+    /**
+     * Drops the canonical derived types, so a compiler that keeps running does not hold the types of every
+     * source it ever read. nothing may use one of them or a type created since the constants anymore.
+     */
+    public static void clearDerived() {
+        DERIVED.clear();
+        IDS.set(CONSTANT_IDS);
+    }
+
+    /**
+     * @return the number of canonical derived types
+     */
+    public static int getDerivedCount() {
+        return DERIVED.size();
     }
 
     public static Type typeByToken(Token peak) {
-        for (Type type : ALL) {
-            if (type.getName().equals(peak.getValue())) {
-                return type;
-            }
-        }
-        return NONE;
+        return typeBySymbol(peak.getSymbol());
     }
 
+    public static Type typeBySymbol(int symbol) {
+        return TYPES_BY_SYMBOL.getOrDefault(symbol, NONE);
+    }
+
+    /**
+     * @return if the types are the same but for varargs, element types like u8 and char
+     * are separate instances with the same properties and still count as equal
+     */
     public boolean assetEqualityFor(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Type type = (Type) o;
 
-        return arrayDepth == type.arrayDepth && pointerDepth == type.pointerDepth && bitSize == type.bitSize &&
-                big == type.big && floating == type.floating && unsigned == type.unsigned && Objects.equals(name, type.name);
+        return arrayDepth == type.arrayDepth && pointerDepth == type.pointerDepth &&
+                (base == type.base || base.isSameElement(type.base));
+    }
+
+    private boolean isSameElement(Type type) {
+        return bitSize == type.bitSize && big == type.big && floating == type.floating && unsigned == type.unsigned &&
+                name.equals(type.name);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, arrayDepth, pointerDepth, bitSize, big, floating, unsigned);
+        return id;
     }
 
     public Type increasePointerDepth(int size) {
-        return new Type(name, arrayDepth,
-                pointerDepth + size, varargs, bitSize, big, floating, unsigned);
+        return this.derive(arrayDepth, pointerDepth + size, varargs);
     }
     public Type increaseArrayDepth(int size, boolean varargs) {
-        return new Type(name, arrayDepth + size,
-                pointerDepth, varargs, bitSize, big, floating, unsigned);
+        return this.derive(arrayDepth + size, pointerDepth, varargs);
+    }
+
+    /**
+     * @return a number unique to the instance, counted up from 0
+     */
+    public int getId() {
+        return id;
+    }
+
+    public Type getBase() {
+        return base;
+    }
+
+    /**
+     * @return the name of the type in mangled names, see {@link axiol.mangler.Mangler#mangleType},
+     * built on first use as it only depends on the properties
+     */
+    public String getMangledName() {
+        String mangledName = this.mangledName;
+        if (mangledName == null) {
+            mangledName = this.buildMangledName();
+            this.mangledName = mangledName;
+        }
+        return mangledName;
+    }
+
+    private String buildMangledName() {
+        StringBuilder sb = new StringBuilder();
+        if (big)
+            sb.append('b');
+        else if (unsigned)
+            sb.append('u');
+        else if (floating)
+            sb.append('f');
+        else
+            sb.append('s');
+
+        sb.append('x').append(HEX.charAt(arrayDepth))
+                .append('p').append(HEX.charAt(pointerDepth))
+
+                .append(BASE64.charAt(bitSize % 64))
+                .append(BASE64.charAt(bitSize / 64));
+        return sb.toString();
     }
 
     public int getArrayDepth() {
@@ -163,4 +277,7 @@ public class Type {
                 ", unsigned=" + unsigned +
                 '}';
     }
+
+    private record Shape(Type base, int arrayDepth, int pointerDepth, boolean varargs) {
+    }
 }